@@ -0,0 +1,396 @@
+package hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.AsyncTable;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.ScanResultConsumer;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * @description HBase异步操作类：基于AsyncConnection/AsyncTable，所有操作立即返回CompletableFuture，调用线程不等待RPC，
+ *               一个线程就可以同时发出大量请求；同时进行中的操作数达到maxInFlight时，新操作放入等待队列，在有操作完成时依次发起
+ *               （不阻塞调用线程，也不阻塞执行回调的RPC线程，因此可以在thenCompose等回调中继续发起操作；等待队列没有上限，
+ *               需要限制内存时由调用者控制未完成的Future数量，见getQueuedCount）
+ *               回调（thenApply等）默认在HBase的RPC线程中执行，耗时的处理需要使用thenApplyAsync等方法交给其他线程池；
+ *               扫描结果则在内部的线程池中交给调用者的consumer处理
+ */
+public class HBaseAsyncUtil implements Closeable {
+
+    private final AsyncConnection asyncConnection;
+    // 执行扫描consumer的线程池（不在RPC线程中执行调用者的代码）
+    private final ExecutorService scanExecutor;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    // 没有可用许可时等待发起的操作
+    private final ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<Runnable>();
+    // 请求发起等待操作的次数：只有从0开始增加的线程负责循环发起，其他线程（以及同步完成时递归进入的调用）只增加计数
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    // 行键加盐的表（与HBaseUtil.setRowKeySalter相同）
+    private final Map<String, HBaseRowKeySalter> rowKeySalters = new ConcurrentHashMap<String, HBaseRowKeySalter>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     *
+     * @param zksStr zookeeper集群
+     * @param maxInFlight 同时进行中的最大操作数
+     * @param scanThreads 执行扫描consumer的线程数
+     * @throws IOException
+     * @description 初始化HBase异步连接
+     */
+    public HBaseAsyncUtil(String zksStr, int maxInFlight, int scanThreads) throws IOException {
+        if(maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        Configuration configuration = HBaseConfiguration.create();
+        configuration.set("hbase.zookeeper.quorum", zksStr);
+        try {
+            asyncConnection = ConnectionFactory.createAsyncConnection(configuration).get();
+        } catch (Exception e) {
+            throw new IOException("创建AsyncConnection失败", e);
+        }
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.scanExecutor = Executors.newFixedThreadPool(Math.max(1, scanThreads));
+    }
+
+    public void setRowKeySalter(String tableName, HBaseRowKeySalter rowKeySalter) {
+        if(rowKeySalter == null) {
+            rowKeySalters.remove(tableName);
+        } else {
+            rowKeySalters.put(tableName, rowKeySalter);
+        }
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @param value 值
+     * @return
+     * @description 插入一个Cell
+     */
+    public CompletableFuture<Void> insertCell(String tableName, String rowKey, String familyColumn, String qualifier, String value) {
+        Put put = new Put(toRowBytes(tableName, rowKey));
+        put.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier), Bytes.toBytes(value));
+
+        return submit(() -> getTable(tableName).put(put));
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyColumn 列族
+     * @param qualifiers 字段数组
+     * @param values 值数组
+     * @return
+     * @description 向固定行固定列族插入多个Cell
+     */
+    public CompletableFuture<Void> insertCells(String tableName, String rowKey, String familyColumn, String[] qualifiers, String[] values) {
+        Put put = new Put(toRowBytes(tableName, rowKey));
+        for(int i = 0; i < qualifiers.length; i++) {
+            put.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifiers[i]), Bytes.toBytes(values[i]));
+        }
+
+        return submit(() -> getTable(tableName).put(put));
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyColumn 列族（为null时删除整行）
+     * @param qualifier 字段（为null时删除整个列族）
+     * @return
+     * @description 删除一个Cell、一个列族或者一行
+     */
+    public CompletableFuture<Void> deleteCell(String tableName, String rowKey, String familyColumn, String qualifier) {
+        Delete delete = new Delete(toRowBytes(tableName, rowKey));
+        if(qualifier != null) {
+            delete.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier));
+        } else if(familyColumn != null) {
+            delete.addFamily(Bytes.toBytes(familyColumn));
+        }
+
+        return submit(() -> getTable(tableName).delete(delete));
+    }
+
+    public CompletableFuture<Void> deleteRow(String tableName, String rowKey) {
+        return deleteCell(tableName, rowKey, null, null);
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyColumn 列族（为null时获取整行）
+     * @param qualifier 字段（为null时获取整个列族）
+     * @return 行或者Cell不存在时为空列表
+     * @description 获取Cell列表
+     */
+    public CompletableFuture<List<Cell>> getCellList(String tableName, String rowKey, String familyColumn, String qualifier) {
+        Get get = new Get(toRowBytes(tableName, rowKey));
+        if(qualifier != null) {
+            get.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier));
+        } else if(familyColumn != null) {
+            get.addFamily(Bytes.toBytes(familyColumn));
+        }
+
+        return submit(() -> getTable(tableName).get(get))
+                .thenApply(result -> result.isEmpty() ? Collections.<Cell>emptyList() : result.listCells());
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @return Cell不存在时为null
+     * @description 获取特定Cell的值
+     */
+    public CompletableFuture<String> getCellValue(String tableName, String rowKey, String familyColumn, String qualifier) {
+        return getCellList(tableName, rowKey, familyColumn, qualifier).thenApply(cellList -> {
+            if(cellList.isEmpty()) {
+                return null;
+            }
+            Cell cell = cellList.get(0);
+            return Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        });
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @return 行不存在时为null
+     * @description 获取特定行的值（与HBaseUtil.getRowValue的返回结构相同）
+     */
+    public CompletableFuture<Map<String, Map<String, String>>> getRowValue(String tableName, String rowKey) {
+        return getCellList(tableName, rowKey, null, null)
+                .thenApply(cellList -> cellList.isEmpty() ? null : HBaseResultMapper.toFamilyMap(cellList));
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param scan 扫描条件（加盐的表对每个桶同时扫描，consumer收到的行不保证顺序；加盐的表不支持reversed扫描，返回的Future以IllegalArgumentException失败）
+     * @param consumer 处理每一行（返回false时停止扫描；可能在scanExecutor的不同线程中调用，但同一时刻只有一个调用，consumer不需要线程安全；抛出异常时停止扫描，返回的Future以该异常失败）
+     * @return 处理的行数
+     * @description 扫描并把结果逐行交给consumer，扫描结束（或者被consumer停止）后完成；整个扫描只占用一个进行中的操作数
+     */
+    public CompletableFuture<Long> scan(String tableName, Scan scan, Predicate<Result> consumer) {
+        return submit(() -> {
+            HBaseRowKeySalter rowKeySalter = rowKeySalters.get(tableName);
+            List<Scan> scans = rowKeySalter == null ? Collections.singletonList(scan) : rowKeySalter.toBucketScans(scan);
+            AsyncTable<ScanResultConsumer> table = asyncConnection.getTable(TableName.valueOf(tableName), scanExecutor);
+
+            AtomicLong rowCount = new AtomicLong();
+            AtomicBoolean stopped = new AtomicBoolean(false);
+            // 多个桶的扫描在不同线程中回调，加锁保证consumer同一时刻只被一个线程调用
+            Object consumerLock = new Object();
+            List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+            for(Scan bucketScan : scans) {
+                CompletableFuture<Void> future = new CompletableFuture<Void>();
+                table.scan(bucketScan, new ScanResultConsumer() {
+                    @Override
+                    public boolean onNext(Result result) {
+                        synchronized (consumerLock) {
+                            if(stopped.get()) {
+                                return false;
+                            }
+                            rowCount.incrementAndGet();
+                            // HBase只在IOException时回调onError，consumer抛出的其他异常会使扫描任务直接结束，
+                            // Future永远不会完成（许可也不会释放），因此在这里捕获并结束扫描
+                            try {
+                                if(!consumer.test(result)) {
+                                    stopped.set(true);
+                                    return false;
+                                }
+                                return true;
+                            } catch (Throwable t) {
+                                stopped.set(true);
+                                future.completeExceptionally(t);
+                                return false;
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        future.completeExceptionally(error);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        future.complete(null);
+                    }
+                });
+                futures.add(future);
+            }
+
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> rowCount.get());
+        });
+    }
+
+    // 有可用许可时立即发起操作，否则放入等待队列（从不阻塞调用线程），操作完成时释放许可并发起等待中的操作
+    private <T> CompletableFuture<T> submit(OperationSupplier<T> operation) {
+        submitted.incrementAndGet();
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        if(inFlight.tryAcquire()) {
+            start(operation, future);
+        } else {
+            pending.add(() -> start(operation, future));
+            // 放入队列前可能已经有操作完成并释放了许可
+            startPending();
+        }
+
+        return future;
+    }
+
+    // 已经获取许可，发起操作
+    private <T> void start(OperationSupplier<T> operation, CompletableFuture<T> future) {
+        CompletableFuture<T> operationFuture;
+        try {
+            operationFuture = operation.get();
+        } catch (Exception e) {
+            operationFuture = new CompletableFuture<T>();
+            operationFuture.completeExceptionally(e);
+        }
+        operationFuture.whenComplete((result, error) -> {
+            inFlight.release();
+            startPending();
+            if(error != null) {
+                failed.incrementAndGet();
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        });
+    }
+
+    // 在有可用许可时发起等待队列中的操作（释放许可和放入队列的线程都会调用，不会遗漏）
+    // 操作同步失败时whenComplete会在start中直接执行并再次调用startPending，如果直接递归，栈深度会随等待队列的长度增长，
+    // 因此同一时刻只有一个线程循环发起，其他调用只增加drainRequests，由正在循环的线程再检查一遍队列
+    private void startPending() {
+        if(drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            while(!pending.isEmpty() && inFlight.tryAcquire()) {
+                Runnable operation = pending.poll();
+                if(operation == null) {
+                    inFlight.release();
+                    break;
+                }
+                operation.run();
+            }
+            requests = drainRequests.addAndGet(-requests);
+        } while(requests != 0);
+    }
+
+    private AsyncTable<?> getTable(String tableName) {
+        return asyncConnection.getTable(TableName.valueOf(tableName));
+    }
+
+    private byte[] toRowBytes(String tableName, String rowKey) {
+        HBaseRowKeySalter rowKeySalter = rowKeySalters.get(tableName);
+        return rowKeySalter == null ? Bytes.toBytes(rowKey) : rowKeySalter.encodeBytes(rowKey);
+    }
+
+    /**
+     * @description 关闭连接（不等待进行中的操作）
+     */
+    public void close() {
+        try {
+            asyncConnection.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        scanExecutor.shutdown();
+    }
+
+    public int getInFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+    public int getQueuedCount() {
+        return pending.size();
+    }
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "inFlight=" + getInFlightCount() +
+                ", maxInFlight=" + maxInFlight +
+                ", queued=" + getQueuedCount() +
+                ", submitted=" + getSubmittedCount() +
+                ", failed=" + getFailedCount();
+    }
+
+    // 发起异步操作（可以抛出受检异常，例如构造扫描条件时的IOException）
+    private interface OperationSupplier<T> {
+        CompletableFuture<T> get() throws Exception;
+    }
+
+    /**
+     *
+     * @param args
+     * @description 测试
+     */
+    public static void main(String[] args) throws Exception {
+        HBaseAsyncUtil hBaseAsyncUtil = new HBaseAsyncUtil("wonder1,wonder2,wonder3", 1000, 4);
+
+        // 一个线程发起10万次插入，同时进行中的请求最多1000个
+//        List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+//        for(int i = 0; i < 100000; i++) {
+//            futures.add(hBaseAsyncUtil.insertCell("test_order", String.format("rk_%07d", i), "basic_info", "name", "Orange"));
+//        }
+//        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        // 异步获取
+//        hBaseAsyncUtil.getCellValue("test_order", "rk_0000002", "basic_info", "name").thenAccept(System.out::println).join();
+//        hBaseAsyncUtil.getRowValue("test_order", "rk_0000002").thenAccept(System.out::println).join();
+
+        // 扫描并逐行处理
+//        Scan scan = new Scan().withStartRow(Bytes.toBytes("rk_0000000")).withStopRow(Bytes.toBytes("rk_0001000"));
+//        System.out.println(hBaseAsyncUtil.scan("test_order", scan, row -> true).join());
+
+        hBaseAsyncUtil.close();
+    }
+}
@@ -0,0 +1,255 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @description 基于BufferedMutator的批量写入：Put先缓存在客户端，缓冲区写满或者定时刷新时由客户端按RegionServer分组批量发送，
+ *               避免insertCell每次调用都打开Table并同步发送一个Put；发送失败的Mutation通过ExceptionListener统计和输出
+ *               （BufferedMutator是线程安全的，但刷新失败只能在后续的mutate、flush或close时才能感知）
+ *               使用读缓存时，BufferedMutator在后台发送完成后不会通知调用者，发送前的查询可能把旧值放回缓存，
+ *               因此缓冲区写满和定时刷新都改为调用flush（等待发送完成后清空缓存），不再使用BufferedMutator的后台刷新
+ */
+public class HBaseBulkWriter implements Closeable {
+
+    // 最多保留的失败行键数量
+    private static final int MAX_FAILED_ROWS = 1000;
+
+    private final BufferedMutator bufferedMutator;
+    private final String tableName;
+    // 读缓存（可以为null）：写入的行立即失效，缓冲区发送后清空整个缓存（查询可能在发送前缓存了旧值）
+    private final HBaseRowCache rowCache;
+    private final long writeBufferSize;
+    // 使用读缓存时自上次flush以来写入的字节数（达到writeBufferSize时flush）
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    // 使用读缓存时定时调用flush（不使用读缓存时为null，由BufferedMutator定时刷新）
+    private final ScheduledExecutorService flushScheduler;
+    // 行键加盐（可以为null）：insertCell、insertCells对行键编码，mutate传入的Mutation需要调用者自己编码
+    private final HBaseRowKeySalter rowKeySalter;
+    private volatile boolean unflushedMutations = false;
+
+    private final AtomicLong mutationCount = new AtomicLong();
+    private final AtomicLong cellCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final List<String> failedRows = new ArrayList<String>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     *
+     * @param connection HBase连接
+     * @param tableName 表名
+     * @param writeBufferSize 客户端写缓冲区大小（字节，超过后自动发送；使用读缓存时由mutate调用flush，等待发送完成）
+     * @param flushIntervalMillis 定时刷新间隔（毫秒，小于等于0表示只在缓冲区写满时发送）
+     * @param rowCache HBaseUtil的读缓存（可以为null）
+     * @param rowKeySalter 表的行键加盐方式（可以为null）
+     * @throws IOException
+     */
+    HBaseBulkWriter(Connection connection, String tableName, long writeBufferSize, long flushIntervalMillis,
+                    HBaseRowCache rowCache, HBaseRowKeySalter rowKeySalter) throws IOException {
+        this.tableName = tableName;
+        this.rowCache = rowCache;
+        this.writeBufferSize = writeBufferSize;
+        this.rowKeySalter = rowKeySalter;
+        BufferedMutatorParams params = new BufferedMutatorParams(TableName.valueOf(tableName))
+                .writeBufferSize(writeBufferSize)
+                .listener(new BufferedMutator.ExceptionListener() {
+                    public void onException(RetriesExhaustedWithDetailsException e, BufferedMutator mutator) {
+                        recordFailures(e);
+                    }
+                });
+        if(flushIntervalMillis > 0 && rowCache == null) {
+            params.setWriteBufferPeriodicFlushTimeoutMs(flushIntervalMillis);
+        }
+        bufferedMutator = connection.getBufferedMutator(params);
+        if(flushIntervalMillis > 0 && rowCache != null) {
+            flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "HBaseBulkWriter-flush-" + tableName);
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flushScheduler = null;
+        }
+    }
+
+    /**
+     *
+     * @param rowKey 行键
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @param value 值
+     * @return
+     * @description 写入一个Cell（只放入客户端缓冲区，返回true不代表已经写入HBase）
+     */
+    public boolean insertCell(String rowKey, String familyColumn, String qualifier, String value) {
+        Put put = new Put(rowKeySalter == null ? Bytes.toBytes(rowKey) : rowKeySalter.encodeBytes(rowKey));
+        put.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier), Bytes.toBytes(value));
+
+        return mutate(put);
+    }
+
+    /**
+     *
+     * @param rowKey 行键
+     * @param familyColumn 列族
+     * @param qualifiers 字段数组
+     * @param values 值数组
+     * @return
+     * @description 向固定行固定列族写入多个Cell
+     */
+    public boolean insertCells(String rowKey, String familyColumn, String[] qualifiers, String[] values) {
+        Put put = new Put(rowKeySalter == null ? Bytes.toBytes(rowKey) : rowKeySalter.encodeBytes(rowKey));
+        for(int i = 0; i < qualifiers.length; i++) {
+            put.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifiers[i]), Bytes.toBytes(values[i]));
+        }
+
+        return mutate(put);
+    }
+
+    /**
+     *
+     * @param mutation Put或者Delete
+     * @return
+     * @description 写入任意Mutation
+     */
+    public boolean mutate(Mutation mutation) {
+        try {
+            bufferedMutator.mutate(mutation);
+            mutationCount.incrementAndGet();
+            cellCount.addAndGet(mutation.size());
+            if(rowCache != null) {
+                rowCache.invalidate(tableName, decode(mutation.getRow()));
+                unflushedMutations = true;
+                if(bufferedBytes.addAndGet(mutation.heapSize()) >= writeBufferSize) {
+                    flush();
+                }
+            }
+
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    /**
+     *
+     * @return
+     * @description 立即发送缓冲区中的所有Mutation（等待发送完成）
+     */
+    public boolean flush() {
+        // 先重置再发送：发送期间写入的Mutation可能不在这次发送中，由下一次flush清空缓存
+        boolean clearCache = resetUnflushed();
+        try {
+            bufferedMutator.flush();
+
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            clearRowCache(clearCache);
+        }
+
+        return false;
+    }
+
+    /**
+     * @description 发送剩余的Mutation并关闭
+     */
+    public void close() {
+        if(flushScheduler != null) {
+            // 等待正在执行的定时flush结束，避免与close同时发送
+            flushScheduler.shutdown();
+            try {
+                flushScheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        boolean clearCache = resetUnflushed();
+        try {
+            bufferedMutator.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        clearRowCache(clearCache);
+    }
+
+    private boolean resetUnflushed() {
+        bufferedBytes.set(0);
+        boolean hadMutations = unflushedMutations;
+        unflushedMutations = false;
+
+        return hadMutations;
+    }
+
+    private void clearRowCache(boolean clearCache) {
+        if(rowCache != null && clearCache) {
+            rowCache.clear();
+        }
+    }
+
+    private String decode(byte[] row) {
+        return rowKeySalter == null ? Bytes.toString(row) : rowKeySalter.decode(row);
+    }
+
+    private void recordFailures(RetriesExhaustedWithDetailsException e) {
+        failedCount.addAndGet(e.getNumExceptions());
+        synchronized (failedRows) {
+            for(int i = 0; i < e.getNumExceptions(); i++) {
+                String rowKey = decode(e.getRow(i).getRow());
+                if(failedRows.size() < MAX_FAILED_ROWS) {
+                    failedRows.add(rowKey);
+                }
+                System.err.println("写入失败的行" + rowKey + "（" + e.getHostnamePort(i) + "）：" + e.getCause(i));
+            }
+        }
+    }
+
+    public long getMutationCount() {
+        return mutationCount.get();
+    }
+    public long getCellCount() {
+        return cellCount.get();
+    }
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+    public List<String> getFailedRows() {
+        synchronized (failedRows) {
+            return new ArrayList<String>(failedRows);
+        }
+    }
+    public long getWriteBufferSize() {
+        return bufferedMutator.getWriteBufferSize();
+    }
+    public double getCellsPerSecond() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return elapsedNanos == 0 ? 0.0 : cellCount.get() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "mutations=" + getMutationCount() +
+                ", cells=" + getCellCount() +
+                ", failed=" + getFailedCount() +
+                ", cellsPerSecond=" + String.format("%.1f", getCellsPerSecond());
+    }
+}
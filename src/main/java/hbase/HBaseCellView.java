@@ -0,0 +1,188 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * @description Cell的只读视图：行键、列族、字段和值都以“数组+偏移量+长度”的方式直接读取Cell底层的字节数组，
+ *               不像CellUtil.cloneXxx那样为每个部分复制一份；同一个视图对象在访问下一个Cell时会被复用，
+ *               因此不能在HBaseRowVisitor之外保存（需要保存时使用getXxxString或copyValue）
+ */
+public final class HBaseCellView {
+
+    private Cell cell;
+
+    HBaseCellView() {
+    }
+
+    HBaseCellView reset(Cell cell) {
+        this.cell = cell;
+        return this;
+    }
+
+    public Cell getCell() {
+        return cell;
+    }
+
+    public byte[] getRowArray() {
+        return cell.getRowArray();
+    }
+    public int getRowOffset() {
+        return cell.getRowOffset();
+    }
+    public int getRowLength() {
+        return cell.getRowLength();
+    }
+    public byte[] getFamilyArray() {
+        return cell.getFamilyArray();
+    }
+    public int getFamilyOffset() {
+        return cell.getFamilyOffset();
+    }
+    public int getFamilyLength() {
+        return cell.getFamilyLength();
+    }
+    public byte[] getQualifierArray() {
+        return cell.getQualifierArray();
+    }
+    public int getQualifierOffset() {
+        return cell.getQualifierOffset();
+    }
+    public int getQualifierLength() {
+        return cell.getQualifierLength();
+    }
+    public byte[] getValueArray() {
+        return cell.getValueArray();
+    }
+    public int getValueOffset() {
+        return cell.getValueOffset();
+    }
+    public int getValueLength() {
+        return cell.getValueLength();
+    }
+    public long getTimestamp() {
+        return cell.getTimestamp();
+    }
+
+    /**
+     *
+     * @param row 行键
+     * @return
+     * @description 比较行键（不复制）
+     */
+    public boolean rowEquals(byte[] row) {
+        return Bytes.equals(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength(), row, 0, row.length);
+    }
+    public boolean familyEquals(byte[] familyColumn) {
+        return Bytes.equals(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength(),
+                familyColumn, 0, familyColumn.length);
+    }
+    public boolean qualifierEquals(byte[] qualifier) {
+        return Bytes.equals(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength(),
+                qualifier, 0, qualifier.length);
+    }
+    public boolean valueEquals(byte[] value) {
+        return Bytes.equals(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength(), value, 0, value.length);
+    }
+
+    public String getRowString() {
+        return Bytes.toString(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength());
+    }
+    public String getFamilyString() {
+        return Bytes.toString(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+    }
+    public String getQualifierString() {
+        return Bytes.toString(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+    }
+    public String getValueString() {
+        return Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    /**
+     *
+     * @return
+     * @description 值为Bytes.toBytes(long)写入的8字节二进制数
+     */
+    public long getValueLong() {
+        return Bytes.toLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+    /**
+     *
+     * @return
+     * @description 值为Bytes.toBytes(int)写入的4字节二进制数
+     */
+    public int getValueInt() {
+        return Bytes.toInt(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+    /**
+     *
+     * @return
+     * @description 值为Bytes.toBytes(double)写入的8字节二进制数
+     */
+    public double getValueDouble() {
+        if(cell.getValueLength() != Bytes.SIZEOF_DOUBLE) {
+            throw new IllegalArgumentException("value length " + cell.getValueLength() + " is not " + Bytes.SIZEOF_DOUBLE);
+        }
+        return Bytes.toDouble(cell.getValueArray(), cell.getValueOffset());
+    }
+
+    /**
+     *
+     * @return
+     * @description 值为十进制文本（例如Bytes.toBytes("6")）时直接从字节解析，不创建String
+     */
+    public long parseValueLong() {
+        byte[] array = cell.getValueArray();
+        int offset = cell.getValueOffset();
+        int end = offset + cell.getValueLength();
+        if(offset == end) {
+            throw new NumberFormatException("empty value");
+        }
+        boolean negative = array[offset] == '-';
+        if(negative || array[offset] == '+') {
+            offset++;
+        }
+        if(offset == end) {
+            throw new NumberFormatException(getValueString());
+        }
+        long result = 0;
+        for(int i = offset; i < end; i++) {
+            int digit = array[i] - '0';
+            if(digit < 0 || digit > 9) {
+                throw new NumberFormatException(getValueString());
+            }
+            // 按负数累加，Long.MIN_VALUE也能正确解析
+            if(result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException(getValueString());
+            }
+            result = result * 10 - digit;
+        }
+        if(!negative && result == Long.MIN_VALUE) {
+            throw new NumberFormatException(getValueString());
+        }
+
+        return negative ? result : -result;
+    }
+    /**
+     *
+     * @return
+     * @description 值为十进制文本（例如Bytes.toBytes("1.5")）
+     */
+    public double parseValueDouble() {
+        return Double.parseDouble(getValueString());
+    }
+
+    /**
+     *
+     * @return
+     * @description 复制值（需要在访问结束后保存值时使用）
+     */
+    public byte[] copyValue() {
+        return Bytes.copy(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    @Override
+    public String toString() {
+        return cell == null ? "null" : cell.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package hbase;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @description 延迟直方图（单位微秒）：按2的幂分段，每段再均分为8个桶（相对误差不超过12.5%），共488个桶覆盖全部long范围，
+ *               记录只需一次数组下标计算和一次原子加法，不加锁也不分配对象，可以在每次操作时调用；
+ *               百分位数取所在桶的上界（偏大而不是偏小）
+ */
+public class HBaseLatencyHistogram {
+
+    // 每段的桶数为2^SUB_BUCKET_BITS
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     *
+     * @param micros 延迟（微秒，小于0时按0记录）
+     */
+    public void record(long micros) {
+        long value = Math.max(0L, micros);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     *
+     * @param quantile 分位（0到1之间，例如0.99）
+     * @return 延迟（微秒），没有记录时返回0
+     */
+    public long percentile(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if(total == 0) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if(cumulative >= target) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+    public long getMax() {
+        return max.get();
+    }
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * @description 清空（与并发的record之间不是原子的，统计值可能有少量偏差）
+     */
+    public void reset() {
+        for(int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    // 小于SUB_BUCKETS的值每个值一个桶，之后每个2的幂分段分为SUB_BUCKETS个桶
+    static int bucket(long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // 桶内的最大值
+    static long upperBound(int bucket) {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+
+        return lower + (width - 1);
+    }
+}
@@ -0,0 +1,282 @@
+package hbase;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @description HBase操作指标：按“表名+操作名”分别统计次数、失败次数、处理的行数以及延迟直方图（p50/p99/p999），
+ *               每个“表名+操作名”注册为一个JMX MXBean（hbase:type=HBaseUtil,table=表名,operation=操作名，可以在jconsole中查看），
+ *               也可以定期把快照输出到标准输出
+ */
+public class HBaseMetrics {
+
+    public static final String JMX_DOMAIN = "hbase";
+
+    private final Map<String, OperationMetrics> operationMetricsMap = new ConcurrentHashMap<String, OperationMetrics>();
+    private final boolean registerJmx;
+    private ScheduledExecutorService reporter = null;
+
+    /**
+     *
+     * @param registerJmx 是否注册到JMX（同一个JVM中只应有一个注册到JMX的HBaseMetrics，重名的MXBean不会重复注册）
+     */
+    public HBaseMetrics(boolean registerJmx) {
+        this.registerJmx = registerJmx;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param operation 操作名
+     * @return
+     * @description 开始计时（操作结束时调用Timer的success或者failure）
+     */
+    public Timer start(String tableName, String operation) {
+        return new Timer(getOperationMetrics(tableName, operation), System.nanoTime());
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param operation 操作名
+     * @return
+     * @description 获取（不存在时创建并注册到JMX）指定表和操作的指标
+     */
+    public OperationMetrics getOperationMetrics(String tableName, String operation) {
+        String key = tableName + "#" + operation;
+        OperationMetrics operationMetrics = operationMetricsMap.get(key);
+        if(operationMetrics == null) {
+            OperationMetrics created = new OperationMetrics(tableName, operation);
+            operationMetrics = operationMetricsMap.putIfAbsent(key, created);
+            if(operationMetrics == null) {
+                operationMetrics = created;
+                if(registerJmx) {
+                    registerMXBean(created);
+                }
+            }
+        }
+
+        return operationMetrics;
+    }
+
+    private void registerMXBean(OperationMetrics operationMetrics) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = operationMetrics.getObjectName();
+            if(!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(operationMetrics, objectName);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     *
+     * @return 每个“表名+操作名”一行
+     * @description 当前所有指标的快照（每秒次数为距离上一次snapshot的平均值）
+     */
+    public synchronized List<String> snapshot() {
+        List<String> lines = new ArrayList<String>();
+        long nowNanos = System.nanoTime();
+        for(OperationMetrics operationMetrics : operationMetricsMap.values()) {
+            lines.add(operationMetrics.snapshot(nowNanos));
+        }
+        Collections.sort(lines);
+
+        return lines;
+    }
+
+    /**
+     *
+     * @param period 输出间隔
+     * @param timeUnit 间隔单位
+     * @description 定期把快照输出到标准输出（后台守护线程）
+     */
+    public synchronized void startReporter(long period, TimeUnit timeUnit) {
+        if(reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hbase-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            for(String line : snapshot()) {
+                System.out.println(line);
+            }
+        }, period, period, timeUnit);
+    }
+
+    /**
+     * @description 停止定期输出并从JMX注销
+     */
+    public synchronized void shutdown() {
+        if(reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        if(registerJmx) {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            for(OperationMetrics operationMetrics : operationMetricsMap.values()) {
+                try {
+                    ObjectName objectName = operationMetrics.getObjectName();
+                    if(mBeanServer.isRegistered(objectName)) {
+                        mBeanServer.unregisterMBean(objectName);
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * @description 一次操作的计时（success、failure只有第一次调用有效；metrics为null时什么也不做）
+     */
+    public static class Timer {
+
+        public static final Timer NOOP = new Timer(null, 0L);
+
+        private final OperationMetrics operationMetrics;
+        private final long startNanos;
+        private boolean stopped = false;
+
+        Timer(OperationMetrics operationMetrics, long startNanos) {
+            this.operationMetrics = operationMetrics;
+            this.startNanos = startNanos;
+        }
+
+        public void success(long items) {
+            stop(true, items);
+        }
+        public void failure() {
+            stop(false, 0L);
+        }
+
+        private void stop(boolean success, long items) {
+            if(operationMetrics == null || stopped) {
+                return;
+            }
+            stopped = true;
+            operationMetrics.record((System.nanoTime() - startNanos) / 1000L, success, items);
+        }
+    }
+
+    /**
+     * @description JMX中显示的属性（延迟单位为微秒）
+     */
+    public interface OperationMetricsMXBean {
+        String getTableName();
+        String getOperation();
+        long getCount();
+        long getErrors();
+        long getItems();
+        double getMeanMicros();
+        long getP50Micros();
+        long getP99Micros();
+        long getP999Micros();
+        long getMaxMicros();
+        void reset();
+    }
+
+    public static class OperationMetrics implements OperationMetricsMXBean {
+
+        private final String tableName;
+        private final String operation;
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final HBaseLatencyHistogram histogram = new HBaseLatencyHistogram();
+
+        // 上一次snapshot时的次数和时间，用于计算每秒次数
+        private long lastCount = 0;
+        private long lastNanos = System.nanoTime();
+
+        OperationMetrics(String tableName, String operation) {
+            this.tableName = tableName;
+            this.operation = operation;
+        }
+
+        void record(long micros, boolean success, long itemCount) {
+            histogram.record(micros);
+            if(success) {
+                items.add(itemCount);
+            } else {
+                errors.increment();
+            }
+        }
+
+        ObjectName getObjectName() throws Exception {
+            return new ObjectName(JMX_DOMAIN + ":type=HBaseUtil,table=" + ObjectName.quote(tableName)
+                    + ",operation=" + ObjectName.quote(operation));
+        }
+
+        synchronized String snapshot(long nowNanos) {
+            long count = getCount();
+            double seconds = (nowNanos - lastNanos) / 1e9;
+            double rate = seconds <= 0 ? 0.0 : (count - lastCount) / seconds;
+            lastCount = count;
+            lastNanos = nowNanos;
+
+            return "table=" + tableName +
+                    ", operation=" + operation +
+                    ", count=" + count +
+                    ", perSecond=" + String.format("%.1f", rate) +
+                    ", errors=" + getErrors() +
+                    ", items=" + getItems() +
+                    ", meanMicros=" + String.format("%.1f", getMeanMicros()) +
+                    ", p50Micros=" + getP50Micros() +
+                    ", p99Micros=" + getP99Micros() +
+                    ", p999Micros=" + getP999Micros() +
+                    ", maxMicros=" + getMaxMicros();
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+        public String getOperation() {
+            return operation;
+        }
+        public long getCount() {
+            return histogram.getCount();
+        }
+        public long getErrors() {
+            return errors.sum();
+        }
+        public long getItems() {
+            return items.sum();
+        }
+        public double getMeanMicros() {
+            return histogram.getMean();
+        }
+        public long getP50Micros() {
+            return histogram.percentile(0.5);
+        }
+        public long getP99Micros() {
+            return histogram.percentile(0.99);
+        }
+        public long getP999Micros() {
+            return histogram.percentile(0.999);
+        }
+        public long getMaxMicros() {
+            return histogram.getMax();
+        }
+        public synchronized void reset() {
+            histogram.reset();
+            errors.reset();
+            items.reset();
+            lastCount = 0;
+        }
+    }
+}
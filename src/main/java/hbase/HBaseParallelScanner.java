@@ -0,0 +1,269 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @description 按Region并行扫描：通过RegionLocator获取Region边界，把扫描范围按Region拆分成多个子扫描，
+ *               在固定大小的线程池中同时扫描多个RegionServer，结果通过有界队列合并输出（消费者处理不过来时扫描线程会阻塞，内存占用有上限）
+ *               ordered为true时按行键顺序输出（Region之间没有重叠，按Region顺序依次输出即可），否则按到达顺序输出；不支持reversed扫描
+ *               使用完后需要close（提前close会中断所有子扫描）
+ *               某个Region扫描失败时只输出到标准错误并计数，其余Region的结果照常输出，遍历正常结束，
+ *               因此遍历结束后需要检查getFailedRegionCount()，不为0时结果不完整
+ */
+public class HBaseParallelScanner implements Iterable<Result>, Iterator<Result>, Closeable {
+
+    // 子扫描结束标记
+    private static final Result END_OF_REGION = Result.create(new Cell[0]);
+
+    private final Connection connection;
+    private final TableName tableName;
+    private final boolean ordered;
+    private final List<Scan> regionScans;
+    private final List<BlockingQueue<Result>> queues = new ArrayList<BlockingQueue<Result>>();
+    private final ExecutorService executorService;
+    // close时记录整个扫描的耗时和行数（有Region扫描失败时记为失败）
+    private final HBaseMetrics.Timer timer;
+
+    private final AtomicLong rowCount = new AtomicLong();
+    private final AtomicInteger failedRegions = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+
+    private int finishedRegions = 0;
+    private int currentQueue = 0;
+    private Result next;
+    private volatile boolean closed = false;
+
+    /**
+     *
+     * @param connection HBase连接
+     * @param tableName 表名
+     * @param scans 扫描条件（加盐的表每个桶一个，起止行键之外的设置会复制到每个子扫描）
+     * @param parallelism 同时扫描的Region数
+     * @param queueCapacity 结果队列容量（ordered为true时为每个Region的队列容量）
+     * @param ordered 是否按行键顺序输出（多个扫描条件时按扫描条件的顺序依次输出）
+     * @param timer 扫描计时
+     * @throws IOException
+     */
+    HBaseParallelScanner(Connection connection, String tableName, List<Scan> scans, int parallelism, int queueCapacity,
+                         boolean ordered, HBaseMetrics.Timer timer) throws IOException {
+        this.connection = connection;
+        this.timer = timer;
+        this.tableName = TableName.valueOf(tableName);
+        this.ordered = ordered;
+        this.regionScans = new ArrayList<Scan>();
+        for(Scan scan : scans) {
+            regionScans.addAll(splitByRegion(connection, this.tableName, scan));
+        }
+
+        int queueCount = ordered ? regionScans.size() : 1;
+        for(int i = 0; i < queueCount; i++) {
+            queues.add(new ArrayBlockingQueue<Result>(Math.max(1, queueCapacity)));
+        }
+
+        executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, Math.max(1, regionScans.size()))));
+        // 线程池按提交顺序执行，ordered为true时当前输出的Region总是已经在扫描
+        for(int i = 0; i < regionScans.size(); i++) {
+            final Scan regionScan = regionScans.get(i);
+            final BlockingQueue<Result> queue = queues.get(ordered ? i : 0);
+            executorService.submit(() -> scanRegion(regionScan, queue));
+        }
+        executorService.shutdown();
+    }
+
+    // 按Region边界拆分扫描范围（空数组表示不限制）
+    static List<Scan> splitByRegion(Connection connection, TableName tableName, Scan scan) throws IOException {
+        byte[] scanStart = scan.getStartRow();
+        byte[] scanStop = scan.getStopRow();
+
+        List<Scan> scans = new ArrayList<Scan>();
+        RegionLocator regionLocator = connection.getRegionLocator(tableName);
+        try {
+            Pair<byte[][], byte[][]> startEndKeys = regionLocator.getStartEndKeys();
+            byte[][] startKeys = startEndKeys.getFirst();
+            byte[][] endKeys = startEndKeys.getSecond();
+            for(int i = 0; i < startKeys.length; i++) {
+                // 边界仍是扫描条件的边界时保留其是否包含（withStartRow(x, false)、withStopRow(y, true)），Region的边界总是包含起始、不包含结束
+                // 扫描的起始行等于Region起始键时也使用扫描的边界（可能不包含）；结束行等于Region结束键时使用Region的边界，该行属于下一个Region
+                byte[] start = startKeys[i];
+                if(scanStart.length > 0 && Bytes.compareTo(scanStart, start) >= 0) {
+                    start = scanStart;
+                }
+                byte[] stop = endKeys[i];
+                if(scanStop.length > 0 && (stop.length == 0 || Bytes.compareTo(scanStop, stop) < 0)) {
+                    stop = scanStop;
+                }
+                boolean includeStart = start == scanStart ? scan.includeStartRow() : true;
+                boolean includeStop = stop == scanStop ? scan.includeStopRow() : false;
+                if(stop.length > 0) {
+                    int compare = Bytes.compareTo(start, stop);
+                    if(compare > 0 || (compare == 0 && !(includeStart && includeStop))) {
+                        // Region与扫描范围没有交集
+                        continue;
+                    }
+                }
+                Scan regionScan = new Scan(scan);
+                regionScan.withStartRow(start, includeStart);
+                regionScan.withStopRow(stop.length == 0 ? HConstants.EMPTY_END_ROW : stop, includeStop);
+                scans.add(regionScan);
+            }
+        } finally {
+            regionLocator.close();
+        }
+
+        return scans;
+    }
+
+    private void scanRegion(Scan regionScan, BlockingQueue<Result> queue) {
+        try {
+            Table table = connection.getTable(tableName);
+            ResultScanner resultScanner = table.getScanner(regionScan);
+            try {
+                Result result;
+                while(!closed && (result = resultScanner.next()) != null) {
+                    queue.put(result);
+                }
+            } finally {
+                resultScanner.close();
+                table.close();
+            }
+        } catch (InterruptedException e) {
+            // close时中断
+            return;
+        } catch (Exception e) {
+            failedRegions.incrementAndGet();
+            System.err.println("扫描Region[" + Bytes.toStringBinary(regionScan.getStartRow()) + ", "
+                    + Bytes.toStringBinary(regionScan.getStopRow()) + ")失败：" + e);
+        }
+        try {
+            queue.put(END_OF_REGION);
+        } catch (InterruptedException e) {
+            // close时中断
+        }
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(next != null) {
+            return true;
+        }
+        try {
+            while(!closed && finishedRegions < regionScans.size()) {
+                Result result = queues.get(currentQueue).take();
+                if(result == END_OF_REGION) {
+                    finishedRegions++;
+                    if(ordered) {
+                        currentQueue++;
+                    }
+                    continue;
+                }
+                rowCount.incrementAndGet();
+                next = result;
+
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        close();
+
+        return false;
+    }
+
+    @Override
+    public Result next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Result result = next;
+        next = null;
+
+        return result;
+    }
+
+    /**
+     *
+     * @return
+     * @description 转换为顺序Stream（关闭Stream时关闭扫描）
+     */
+    public Stream<Result> stream() {
+        int characteristics = Spliterator.NONNULL | (ordered ? Spliterator.ORDERED : 0);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, characteristics), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * @description 结束所有子扫描并释放线程池
+     */
+    public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        executorService.shutdownNow();
+        if(failedRegions.get() > 0) {
+            timer.failure();
+        } else {
+            timer.success(rowCount.get());
+        }
+        for(BlockingQueue<Result> queue : queues) {
+            queue.clear();
+        }
+    }
+
+    public int getRegionCount() {
+        return regionScans.size();
+    }
+    /**
+     *
+     * @return 扫描失败的Region数（不为0时已经输出的结果缺少这些Region的行）
+     */
+    public int getFailedRegionCount() {
+        return failedRegions.get();
+    }
+    public long getRowCount() {
+        return rowCount.get();
+    }
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1000000L;
+    }
+
+    @Override
+    public String toString() {
+        return "regions=" + getRegionCount() +
+                ", failedRegions=" + getFailedRegionCount() +
+                ", rows=" + getRowCount() +
+                ", elapsedMillis=" + getElapsedMillis();
+    }
+}
@@ -0,0 +1,424 @@
+package hbase;
+
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.BinaryPrefixComparator;
+import org.apache.hadoop.hbase.filter.ByteArrayComparable;
+import org.apache.hadoop.hbase.filter.ColumnPrefixFilter;
+import org.apache.hadoop.hbase.filter.FamilyFilter;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.MultipleColumnPrefixFilter;
+import org.apache.hadoop.hbase.filter.PrefixFilter;
+import org.apache.hadoop.hbase.filter.QualifierFilter;
+import org.apache.hadoop.hbase.filter.RegexStringComparator;
+import org.apache.hadoop.hbase.filter.RowFilter;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.filter.SubstringComparator;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @description 组合查询条件，最终转换为一个Scan：
+ *               HBaseQuery.and()中的条件同时满足（FilterList.Operator.MUST_PASS_ALL），HBaseQuery.or()中的条件满足任意一个即可（MUST_PASS_ONE），
+ *               两者可以通过where嵌套；只使用到的过滤器才会被创建。
+ *               最外层为and时，行键范围和行键前缀直接转换为Scan的起止行键（只扫描对应的Region，而不是在服务端逐行过滤），
+ *               addFamily、addColumn指定返回的列（只有这些列的数据会从RegionServer返回）；
+ *               注意值过滤器需要读取对应的列，只返回部分列时要把值过滤器用到的列也加入返回的列
+ */
+public class HBaseQuery {
+
+    private final FilterList.Operator operator;
+    private final List<Filter> filters = new ArrayList<Filter>();
+    // 最外层为and时可以下推为Scan起止行键的范围（空数组表示不限制）
+    private byte[] startRow = new byte[0];
+    private byte[] stopRow = new byte[0];
+    private boolean emptyRange = false;
+
+    private final List<byte[][]> columns = new ArrayList<byte[][]>();
+    private int caching = 0;
+    private long maxResultSize = 0;
+    private long limit = 0;
+
+    private HBaseQuery(FilterList.Operator operator) {
+        this.operator = operator;
+    }
+
+    /**
+     *
+     * @return
+     * @description 所有条件同时满足
+     */
+    public static HBaseQuery and() {
+        return new HBaseQuery(FilterList.Operator.MUST_PASS_ALL);
+    }
+
+    /**
+     *
+     * @return
+     * @description 满足任意一个条件
+     */
+    public static HBaseQuery or() {
+        return new HBaseQuery(FilterList.Operator.MUST_PASS_ONE);
+    }
+
+    /**
+     *
+     * @param subQuery 子条件（只使用其中的过滤条件，返回的列等设置以最外层为准）
+     * @return
+     * @description 嵌套条件，例如and().rowPrefix("rk").where(or().valueEquals(...).valueEquals(...))
+     */
+    public HBaseQuery where(HBaseQuery subQuery) {
+        Filter filter = subQuery.toFilter();
+        if(filter != null) {
+            filters.add(filter);
+        }
+        return this;
+    }
+
+    /**
+     *
+     * @param prefix 行键前缀
+     * @return
+     * @description 行键前缀（过滤结果为满足条件的所有行的所有数据）
+     */
+    public HBaseQuery rowPrefix(String prefix) {
+        byte[] prefixBytes = Bytes.toBytes(prefix);
+        if(isAnd()) {
+            narrowRange(prefixBytes, prefixStopRow(prefixBytes));
+        } else {
+            filters.add(new PrefixFilter(prefixBytes));
+        }
+        return this;
+    }
+
+    /**
+     *
+     * @param startRow 起始行（包括，为null时不限制）
+     * @param stopRow 结束行（不包括，为null时不限制）
+     * @return
+     * @description 行键范围（startRow <= rowKey < stopRow）
+     */
+    public HBaseQuery rowRange(String startRow, String stopRow) {
+        byte[] start = startRow == null ? new byte[0] : Bytes.toBytes(startRow);
+        byte[] stop = stopRow == null ? new byte[0] : Bytes.toBytes(stopRow);
+        if(isAnd()) {
+            narrowRange(start, stop);
+        } else {
+            FilterList range = new FilterList(FilterList.Operator.MUST_PASS_ALL);
+            if(start.length > 0) {
+                range.addFilter(new RowFilter(CompareOperator.GREATER_OR_EQUAL, new BinaryComparator(start)));
+            }
+            if(stop.length > 0) {
+                range.addFilter(new RowFilter(CompareOperator.LESS, new BinaryComparator(stop)));
+            }
+            filters.add(range);
+        }
+        return this;
+    }
+
+    /**
+     *
+     * @param compareOperator 比较方式
+     * @param rowKey 行键
+     * @return
+     * @description 行过滤器----按字节比较行键（过滤结果为满足条件的所有行的所有数据）
+     */
+    public HBaseQuery rowCompare(CompareOperator compareOperator, String rowKey) {
+        filters.add(new RowFilter(compareOperator, new BinaryComparator(Bytes.toBytes(rowKey))));
+        return this;
+    }
+
+    /**
+     *
+     * @param substring 子串（大小写不敏感）
+     * @return
+     * @description 行过滤器----行键包含子串
+     */
+    public HBaseQuery rowSubstring(String substring) {
+        filters.add(new RowFilter(CompareOperator.EQUAL, new SubstringComparator(substring)));
+        return this;
+    }
+
+    /**
+     *
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @param value 值
+     * @return
+     * @description 单值过滤器----字段值完整匹配（过滤结果为满足条件的所有行的所有数据，不包含该字段的行被过滤掉）
+     */
+    public HBaseQuery valueEquals(String familyColumn, String qualifier, String value) {
+        return valueCompare(familyColumn, qualifier, CompareOperator.EQUAL, new BinaryComparator(Bytes.toBytes(value)));
+    }
+
+    /**
+     *
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @param compareOperator 比较方式
+     * @param value 值（按字节比较）
+     * @return
+     * @description 单值过滤器----按字节比较字段值
+     */
+    public HBaseQuery valueCompare(String familyColumn, String qualifier, CompareOperator compareOperator, byte[] value) {
+        return valueCompare(familyColumn, qualifier, compareOperator, new BinaryComparator(value));
+    }
+
+    /**
+     *
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @param regex 正则表达式
+     * @return
+     * @description 单值过滤器----字段值匹配正则表达式
+     */
+    public HBaseQuery valueRegex(String familyColumn, String qualifier, String regex) {
+        return valueCompare(familyColumn, qualifier, CompareOperator.EQUAL, new RegexStringComparator(regex));
+    }
+
+    /**
+     *
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @param substring 子串（大小写不敏感）
+     * @return
+     * @description 单值过滤器----字段值包含子串
+     */
+    public HBaseQuery valueSubstring(String familyColumn, String qualifier, String substring) {
+        return valueCompare(familyColumn, qualifier, CompareOperator.EQUAL, new SubstringComparator(substring));
+    }
+
+    private HBaseQuery valueCompare(String familyColumn, String qualifier, CompareOperator compareOperator,
+                                    ByteArrayComparable comparator) {
+        SingleColumnValueFilter singleColumnValueFilter = new SingleColumnValueFilter(Bytes.toBytes(familyColumn),
+                Bytes.toBytes(qualifier), compareOperator, comparator);
+        singleColumnValueFilter.setFilterIfMissing(true);
+        filters.add(singleColumnValueFilter);
+        return this;
+    }
+
+    /**
+     *
+     * @param familyColumn 列族
+     * @return
+     * @description 键值对元数据过滤----列族完整匹配（过滤结果为满足条件的所有行的对应列族数据）
+     */
+    public HBaseQuery familyEquals(String familyColumn) {
+        filters.add(new FamilyFilter(CompareOperator.EQUAL, new BinaryComparator(Bytes.toBytes(familyColumn))));
+        return this;
+    }
+
+    /**
+     *
+     * @param prefix 列族前缀
+     * @return
+     * @description 键值对元数据过滤----列族前缀匹配
+     */
+    public HBaseQuery familyPrefix(String prefix) {
+        filters.add(new FamilyFilter(CompareOperator.EQUAL, new BinaryPrefixComparator(Bytes.toBytes(prefix))));
+        return this;
+    }
+
+    /**
+     *
+     * @param qualifier 字段
+     * @return
+     * @description 键值对元数据过滤----字段完整匹配（过滤结果为满足条件的所有行的对应字段数据）
+     */
+    public HBaseQuery qualifierEquals(String qualifier) {
+        filters.add(new QualifierFilter(CompareOperator.EQUAL, new BinaryComparator(Bytes.toBytes(qualifier))));
+        return this;
+    }
+
+    /**
+     *
+     * @param prefix 字段前缀
+     * @return
+     * @description 键值对元数据过滤----字段前缀匹配
+     */
+    public HBaseQuery qualifierPrefix(String prefix) {
+        filters.add(new QualifierFilter(CompareOperator.EQUAL, new BinaryPrefixComparator(Bytes.toBytes(prefix))));
+        return this;
+    }
+
+    /**
+     *
+     * @param prefixes 字段前缀（多个前缀的关系为“或”）
+     * @return
+     * @description 基于字段前缀过滤数据（过滤结果为满足条件的所有行的对应字段数据，服务端可以直接跳到下一个匹配的字段）
+     */
+    public HBaseQuery columnPrefix(String... prefixes) {
+        if(prefixes.length == 1) {
+            filters.add(new ColumnPrefixFilter(Bytes.toBytes(prefixes[0])));
+        } else {
+            byte[][] prefixBytes = new byte[prefixes.length][];
+            for(int i = 0; i < prefixes.length; i++) {
+                prefixBytes[i] = Bytes.toBytes(prefixes[i]);
+            }
+            filters.add(new MultipleColumnPrefixFilter(prefixBytes));
+        }
+        return this;
+    }
+
+    /**
+     *
+     * @param filter 过滤器
+     * @return
+     * @description 添加其他过滤器
+     */
+    public HBaseQuery filter(Filter filter) {
+        filters.add(filter);
+        return this;
+    }
+
+    /**
+     *
+     * @param familyColumn 列族
+     * @return
+     * @description 只返回指定列族（可以多次调用，未调用addFamily和addColumn时返回所有列）
+     */
+    public HBaseQuery addFamily(String familyColumn) {
+        columns.add(new byte[][] {Bytes.toBytes(familyColumn), null});
+        return this;
+    }
+
+    /**
+     *
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @return
+     * @description 只返回指定字段（可以多次调用）
+     */
+    public HBaseQuery addColumn(String familyColumn, String qualifier) {
+        columns.add(new byte[][] {Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier)});
+        return this;
+    }
+
+    public HBaseQuery caching(int caching) {
+        this.caching = caching;
+        return this;
+    }
+    public HBaseQuery maxResultSize(long maxResultSize) {
+        this.maxResultSize = maxResultSize;
+        return this;
+    }
+    public HBaseQuery limit(long limit) {
+        this.limit = limit;
+        return this;
+    }
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     *
+     * @return 没有任何过滤条件时返回null
+     * @description 转换为过滤器（最外层为and时下推的行键范围转换为RowFilter，用于嵌套）
+     */
+    public Filter toFilter() {
+        List<Filter> allFilters = new ArrayList<Filter>(filters);
+        if(startRow.length > 0) {
+            allFilters.add(0, new RowFilter(CompareOperator.GREATER_OR_EQUAL, new BinaryComparator(startRow)));
+        }
+        if(stopRow.length > 0) {
+            allFilters.add(0, new RowFilter(CompareOperator.LESS, new BinaryComparator(stopRow)));
+        }
+        if(allFilters.isEmpty()) {
+            return null;
+        }
+        if(allFilters.size() == 1) {
+            return allFilters.get(0);
+        }
+
+        return new FilterList(operator, allFilters);
+    }
+
+    /**
+     *
+     * @return
+     * @description 转换为Scan
+     */
+    public Scan toScan() {
+        Scan scan = new Scan();
+        if(emptyRange) {
+            // 多个行键范围没有交集，扫描一个空范围（起止行键都不包括，避免被当作Get）
+            scan.withStartRow(startRow, false).withStopRow(startRow, false);
+        } else {
+            if(startRow.length > 0) {
+                scan.withStartRow(startRow);
+            }
+            if(stopRow.length > 0) {
+                scan.withStopRow(stopRow);
+            }
+        }
+        if(filters.size() == 1) {
+            scan.setFilter(filters.get(0));
+        } else if(filters.size() > 1) {
+            scan.setFilter(new FilterList(operator, new ArrayList<Filter>(filters)));
+        }
+        for(byte[][] column : columns) {
+            if(column[1] == null) {
+                scan.addFamily(column[0]);
+            } else {
+                scan.addColumn(column[0], column[1]);
+            }
+        }
+        if(caching > 0) {
+            scan.setCaching(caching);
+        }
+        if(maxResultSize > 0) {
+            scan.setMaxResultSize(maxResultSize);
+        }
+        if(limit > 0 && limit <= Integer.MAX_VALUE) {
+            scan.setLimit((int) limit);
+        }
+
+        return scan;
+    }
+
+    private boolean isAnd() {
+        return operator == FilterList.Operator.MUST_PASS_ALL;
+    }
+
+    // 与已有的范围取交集
+    private void narrowRange(byte[] start, byte[] stop) {
+        if(start.length > 0 && Bytes.compareTo(start, startRow) > 0) {
+            startRow = start;
+        }
+        if(stop.length > 0 && (stopRow.length == 0 || Bytes.compareTo(stop, stopRow) < 0)) {
+            stopRow = stop;
+        }
+        if(stopRow.length > 0 && Bytes.compareTo(startRow, stopRow) >= 0) {
+            emptyRange = true;
+        }
+    }
+
+    // 前缀对应的结束行键：去掉末尾的0xFF后最后一个字节加1（全部为0xFF时不限制）
+    private static byte[] prefixStopRow(byte[] prefix) {
+        int length = prefix.length;
+        while(length > 0 && prefix[length - 1] == (byte) 0xFF) {
+            length--;
+        }
+        if(length == 0) {
+            return new byte[0];
+        }
+        byte[] stop = Arrays.copyOf(prefix, length);
+        stop[length - 1]++;
+
+        return stop;
+    }
+
+    @Override
+    public String toString() {
+        return "startRow=" + Bytes.toStringBinary(startRow) +
+                ", stopRow=" + Bytes.toStringBinary(stopRow) +
+                ", filter=" + toFilter() +
+                ", columns=" + columns.size() +
+                ", limit=" + limit;
+    }
+}
@@ -0,0 +1,239 @@
+package hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * @description 批量删除：从只返回行键的并行扫描（HBaseParallelScanner）中取出满足条件的行，每batchSize行组成一个List<Delete>，
+ *               交给固定大小的线程池调用Table.delete批量发送；同时发送的批次数有上限，达到上限时停止取出扫描结果，
+ *               扫描线程随之在有界队列上阻塞，内存占用和对RegionServer的压力都有上限；
+ *               dryRun为true时只统计满足条件的行数，不删除；删除过程中定期回调进度（也用作最终结果）
+ */
+public class HBaseRangeDeleter {
+
+    // 最多保留的删除失败行键数量
+    private static final int MAX_FAILED_ROWS = 1000;
+    // 进度回调的最小间隔
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000L;
+
+    private final Connection connection;
+    private final String tableName;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final boolean dryRun;
+    // 读缓存（可以为null）：删除的行立即失效，删除结束后清空整个缓存
+    private final HBaseRowCache rowCache;
+    // 行键加盐（可以为null）：rowKeyFilter和失败行键使用原始行键
+    private final HBaseRowKeySalter rowKeySalter;
+    private final Consumer<HBaseRangeDeleter> progressListener;
+
+    private final AtomicLong scannedRows = new AtomicLong();
+    private final AtomicLong matchedRows = new AtomicLong();
+    private final AtomicLong deletedRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final List<String> failedRowKeys = new ArrayList<String>();
+    private final long startNanos = System.nanoTime();
+    private volatile int failedRegionCount = 0;
+    private volatile boolean finished = false;
+
+    /**
+     *
+     * @param connection HBase连接
+     * @param tableName 表名
+     * @param batchSize 每批删除的行数
+     * @param maxInFlightBatches 同时发送的最大批次数
+     * @param dryRun 是否只统计不删除
+     * @param rowCache HBaseUtil的读缓存（可以为null）
+     * @param rowKeySalter 表的行键加盐方式（可以为null）
+     * @param progressListener 进度回调（可以为null，在调用run的线程中执行）
+     */
+    HBaseRangeDeleter(Connection connection, String tableName, int batchSize, int maxInFlightBatches, boolean dryRun,
+                      HBaseRowCache rowCache, HBaseRowKeySalter rowKeySalter, Consumer<HBaseRangeDeleter> progressListener) {
+        this.connection = connection;
+        this.tableName = tableName;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxInFlightBatches = Math.max(1, maxInFlightBatches);
+        this.dryRun = dryRun;
+        this.rowCache = rowCache;
+        this.rowKeySalter = rowKeySalter;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     *
+     * @param keyScanner 只返回行键的并行扫描（run结束时关闭）
+     * @param rowKeyFilter 客户端的行键条件（原始行键，可以为null）
+     * @param limit 最多删除的行数（小于等于0表示不限制）
+     * @throws InterruptedException
+     */
+    void run(HBaseParallelScanner keyScanner, Predicate<String> rowKeyFilter, long limit) throws InterruptedException {
+        ExecutorService executorService = dryRun ? null : Executors.newFixedThreadPool(maxInFlightBatches);
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        long lastReportNanos = System.nanoTime();
+        try {
+            List<Delete> batch = new ArrayList<Delete>(batchSize);
+            for(Result result : keyScanner) {
+                scannedRows.incrementAndGet();
+                byte[] row = result.getRow();
+                if(rowKeyFilter != null && !rowKeyFilter.test(decode(row))) {
+                    continue;
+                }
+                matchedRows.incrementAndGet();
+                if(!dryRun) {
+                    batch.add(new Delete(row));
+                    if(rowCache != null) {
+                        rowCache.invalidate(tableName, decode(row));
+                    }
+                    if(batch.size() >= batchSize) {
+                        submitBatch(executorService, inFlight, batch);
+                        batch = new ArrayList<Delete>(batchSize);
+                    }
+                }
+                if(progressListener != null && System.nanoTime() - lastReportNanos >= PROGRESS_INTERVAL_MILLIS * 1000000L) {
+                    lastReportNanos = System.nanoTime();
+                    progressListener.accept(this);
+                }
+                if(limit > 0 && matchedRows.get() >= limit) {
+                    break;
+                }
+            }
+            if(!batch.isEmpty()) {
+                submitBatch(executorService, inFlight, batch);
+            }
+            // 等待所有批次发送完成
+            inFlight.acquire(maxInFlightBatches);
+            inFlight.release(maxInFlightBatches);
+        } finally {
+            keyScanner.close();
+            failedRegionCount = keyScanner.getFailedRegionCount();
+            if(executorService != null) {
+                executorService.shutdownNow();
+            }
+            if(rowCache != null && !dryRun) {
+                rowCache.clear();
+            }
+            finished = true;
+        }
+        if(progressListener != null) {
+            progressListener.accept(this);
+        }
+    }
+
+    // 达到同时发送的批次上限时阻塞
+    private void submitBatch(ExecutorService executorService, Semaphore inFlight, List<Delete> batch) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            executorService.submit(() -> {
+                try {
+                    deleteBatch(batch);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void deleteBatch(List<Delete> batch) {
+        int size = batch.size();
+        batches.incrementAndGet();
+        try {
+            Table table = connection.getTable(TableName.valueOf(tableName));
+            try {
+                table.delete(batch);
+                deletedRows.addAndGet(size);
+            } finally {
+                table.close();
+            }
+        } catch (RetriesExhaustedWithDetailsException e) {
+            // 只有部分行删除失败
+            deletedRows.addAndGet(size - e.getNumExceptions());
+            failedRows.addAndGet(e.getNumExceptions());
+            synchronized (failedRowKeys) {
+                for(int i = 0; i < e.getNumExceptions(); i++) {
+                    String rowKey = decode(e.getRow(i).getRow());
+                    if(failedRowKeys.size() < MAX_FAILED_ROWS) {
+                        failedRowKeys.add(rowKey);
+                    }
+                    System.err.println("删除失败的行" + rowKey + "（" + e.getHostnamePort(i) + "）：" + e.getCause(i));
+                }
+            }
+        } catch (Exception e) {
+            failedRows.addAndGet(size);
+            e.printStackTrace();
+        }
+    }
+
+    private String decode(byte[] row) {
+        return rowKeySalter == null ? Bytes.toString(row) : rowKeySalter.decode(row);
+    }
+
+    public long getScannedRows() {
+        return scannedRows.get();
+    }
+    public long getMatchedRows() {
+        return matchedRows.get();
+    }
+    public long getDeletedRows() {
+        return deletedRows.get();
+    }
+    public long getFailedRows() {
+        return failedRows.get();
+    }
+    public List<String> getFailedRowKeys() {
+        synchronized (failedRowKeys) {
+            return new ArrayList<String>(failedRowKeys);
+        }
+    }
+    public long getBatches() {
+        return batches.get();
+    }
+    public int getFailedRegionCount() {
+        return failedRegionCount;
+    }
+    public boolean isDryRun() {
+        return dryRun;
+    }
+    public boolean isFinished() {
+        return finished;
+    }
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1000000L;
+    }
+    public double getRowsPerSecond() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return elapsedNanos == 0 ? 0.0 : (dryRun ? matchedRows.get() : deletedRows.get()) * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "table=" + tableName +
+                ", dryRun=" + dryRun +
+                ", finished=" + finished +
+                ", scanned=" + getScannedRows() +
+                ", matched=" + getMatchedRows() +
+                ", deleted=" + getDeletedRows() +
+                ", failed=" + getFailedRows() +
+                ", batches=" + getBatches() +
+                ", failedRegions=" + failedRegionCount +
+                ", rowsPerSecond=" + String.format("%.1f", getRowsPerSecond()) +
+                ", elapsedMillis=" + getElapsedMillis();
+    }
+}
@@ -0,0 +1,224 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @description 范围统计结果：行数、Cell数以及每个列族的字节数（行键、列族、字段、时间戳等Key部分加上值的长度，
+ *               与KeyValue序列化后的大小一致，不包括压缩和编码的影响）；
+ *               统计时按Region拆分扫描范围并行扫描，每个Region在扫描线程中直接累加，不把结果行传回调用线程；
+ *               只统计行数时服务端只返回每行的第一个Key（FirstKeyOnlyFilter + KeyOnlyFilter），
+ *               统计字节数时服务端返回所有Key并把值替换为值的长度（KeyOnlyFilter(true)），可以按比例抽样后放大估算
+ */
+public class HBaseRangeStats {
+
+    private final double sampleRatio;
+    private long rowCount = 0;
+    private long cellCount = 0;
+    private final Map<String, Long> familyBytes = new TreeMap<String, Long>();
+    private int regionCount = 0;
+    private int failedRegionCount = 0;
+    private long elapsedMillis = 0;
+
+    private HBaseRangeStats(double sampleRatio) {
+        this.sampleRatio = sampleRatio;
+    }
+
+    /**
+     *
+     * @param connection HBase连接
+     * @param tableName 表名
+     * @param scans 扫描条件（已经设置好过滤器，加盐的表每个桶一个）
+     * @param parallelism 同时扫描的Region数
+     * @param countBytes 是否统计每个列族的字节数（过滤器需要包含KeyOnlyFilter(true)）
+     * @param sampleRatio 抽样比例（过滤器中RandomRowFilter的比例，不抽样时为1）
+     * @return
+     * @throws Exception 获取Region边界失败时抛出（单个Region扫描失败只记入failedRegionCount）
+     */
+    static HBaseRangeStats collect(Connection connection, String tableName, List<Scan> scans, int parallelism,
+                                   boolean countBytes, double sampleRatio) throws Exception {
+        long startNanos = System.nanoTime();
+        TableName hTableName = TableName.valueOf(tableName);
+        List<Scan> regionScans = new ArrayList<Scan>();
+        for(Scan scan : scans) {
+            regionScans.addAll(HBaseParallelScanner.splitByRegion(connection, hTableName, scan));
+        }
+
+        HBaseRangeStats stats = new HBaseRangeStats(sampleRatio);
+        stats.regionCount = regionScans.size();
+        if(!regionScans.isEmpty()) {
+            ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, regionScans.size())));
+            try {
+                List<Future<HBaseRangeStats>> futures = new ArrayList<Future<HBaseRangeStats>>();
+                for(final Scan regionScan : regionScans) {
+                    futures.add(executorService.submit(() -> scanRegion(connection, hTableName, regionScan, countBytes)));
+                }
+                for(int i = 0; i < futures.size(); i++) {
+                    try {
+                        stats.merge(futures.get(i).get());
+                    } catch (Exception e) {
+                        stats.failedRegionCount++;
+                        Scan regionScan = regionScans.get(i);
+                        System.err.println("统计Region[" + Bytes.toStringBinary(regionScan.getStartRow()) + ", "
+                                + Bytes.toStringBinary(regionScan.getStopRow()) + ")失败：" + e);
+                    }
+                }
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
+        stats.elapsedMillis = (System.nanoTime() - startNanos) / 1000000L;
+
+        return stats;
+    }
+
+    // 扫描一个Region并在本线程中累加
+    private static HBaseRangeStats scanRegion(Connection connection, TableName tableName, Scan regionScan,
+                                              boolean countBytes) throws Exception {
+        HBaseRangeStats regionStats = new HBaseRangeStats(1.0);
+        Table table = connection.getTable(tableName);
+        ResultScanner resultScanner = table.getScanner(regionScan);
+        try {
+            // 同一行中相同列族的Cell是连续的，只在列族变化时才查找和更新Map
+            byte[] currentFamily = null;
+            long currentBytes = 0;
+            Result result;
+            while((result = resultScanner.next()) != null) {
+                regionStats.rowCount++;
+                if(!countBytes) {
+                    continue;
+                }
+                for(Cell cell : result.rawCells()) {
+                    regionStats.cellCount++;
+                    if(currentFamily == null || !Bytes.equals(currentFamily, 0, currentFamily.length,
+                            cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength())) {
+                        if(currentFamily != null) {
+                            regionStats.addFamilyBytes(Bytes.toString(currentFamily), currentBytes);
+                        }
+                        currentFamily = Bytes.copy(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+                        currentBytes = 0;
+                    }
+                    // KeyOnlyFilter(true)把值替换为原始值长度（4字节int）
+                    int valueLength = cell.getValueLength() == Bytes.SIZEOF_INT
+                            ? Bytes.toInt(cell.getValueArray(), cell.getValueOffset()) : cell.getValueLength();
+                    currentBytes += KeyValueUtil.keyLength(cell) + valueLength;
+                }
+            }
+            if(currentFamily != null) {
+                regionStats.addFamilyBytes(Bytes.toString(currentFamily), currentBytes);
+            }
+        } finally {
+            resultScanner.close();
+            table.close();
+        }
+
+        return regionStats;
+    }
+
+    private void merge(HBaseRangeStats regionStats) {
+        rowCount += regionStats.rowCount;
+        cellCount += regionStats.cellCount;
+        for(Map.Entry<String, Long> entry : regionStats.familyBytes.entrySet()) {
+            addFamilyBytes(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void addFamilyBytes(String family, long bytes) {
+        Long total = familyBytes.get(family);
+        familyBytes.put(family, total == null ? bytes : total + bytes);
+    }
+
+    // 抽样时按比例放大
+    private long scale(long value) {
+        return sampleRatio >= 1.0 ? value : Math.round(value / sampleRatio);
+    }
+
+    /**
+     *
+     * @return 行数（抽样时为估算值）
+     */
+    public long getRowCount() {
+        return scale(rowCount);
+    }
+
+    /**
+     *
+     * @return Cell数（只统计行数时为0，抽样时为估算值）
+     */
+    public long getCellCount() {
+        return scale(cellCount);
+    }
+
+    /**
+     *
+     * @return 列族 -> 字节数（只统计行数时为空，抽样时为估算值）
+     */
+    public Map<String, Long> getFamilyBytes() {
+        Map<String, Long> scaled = new TreeMap<String, Long>();
+        for(Map.Entry<String, Long> entry : familyBytes.entrySet()) {
+            scaled.put(entry.getKey(), scale(entry.getValue()));
+        }
+
+        return Collections.unmodifiableMap(scaled);
+    }
+
+    /**
+     *
+     * @return 所有列族的字节数之和（抽样时为估算值）
+     */
+    public long getTotalBytes() {
+        long total = 0;
+        for(long bytes : familyBytes.values()) {
+            total += bytes;
+        }
+
+        return scale(total);
+    }
+
+    public long getSampledRowCount() {
+        return rowCount;
+    }
+    public double getSampleRatio() {
+        return sampleRatio;
+    }
+    public boolean isSampled() {
+        return sampleRatio < 1.0;
+    }
+    public int getRegionCount() {
+        return regionCount;
+    }
+    public int getFailedRegionCount() {
+        return failedRegionCount;
+    }
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "rows=" + getRowCount() +
+                ", cells=" + getCellCount() +
+                ", familyBytes=" + getFamilyBytes() +
+                ", totalBytes=" + getTotalBytes() +
+                ", sampleRatio=" + sampleRatio +
+                ", regions=" + regionCount +
+                ", failedRegions=" + failedRegionCount +
+                ", elapsedMillis=" + elapsedMillis;
+    }
+}
@@ -0,0 +1,122 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @description 查询结果映射：通过HBaseCellView直接读取Cell底层的字节数组，
+ *               转换为Map时每个字段和值只创建一个String（不再经过CellUtil.cloneXxx复制字节数组），
+ *               或者把Cell逐个交给HBaseRowVisitor处理而不创建任何中间对象
+ */
+public class HBaseResultMapper {
+
+    private HBaseResultMapper() {
+    }
+
+    /**
+     *
+     * @param cells Cell列表
+     * @param visitor 访问回调
+     * @return 访问者是否要求继续
+     * @description 访问一行的所有Cell
+     */
+    public static boolean visit(List<Cell> cells, HBaseRowVisitor visitor) {
+        if(cells == null || cells.isEmpty()) {
+            return true;
+        }
+        HBaseCellView cellView = new HBaseCellView();
+        for(Cell cell : cells) {
+            if(!visitor.visitCell(cellView.reset(cell))) {
+                return false;
+            }
+        }
+
+        return visitor.endRow(cellView);
+    }
+
+    /**
+     *
+     * @param rows 查询结果（例如HBaseRowScanner、HBaseParallelScanner）
+     * @param visitor 访问回调
+     * @return 访问的行数
+     * @description 依次访问多行的所有Cell（所有Cell共用一个HBaseCellView）
+     */
+    public static long visit(Iterable<Result> rows, HBaseRowVisitor visitor) {
+        HBaseCellView cellView = new HBaseCellView();
+        long rowCount = 0;
+        for(Result row : rows) {
+            Cell[] cells = row.rawCells();
+            if(cells == null || cells.length == 0) {
+                continue;
+            }
+            rowCount++;
+            boolean proceed = true;
+            for(Cell cell : cells) {
+                if(!visitor.visitCell(cellView.reset(cell))) {
+                    proceed = false;
+                    break;
+                }
+            }
+            if(!proceed || !visitor.endRow(cellView)) {
+                break;
+            }
+        }
+
+        return rowCount;
+    }
+
+    /**
+     *
+     * @param cells Cell列表
+     * @return 字段到值的映射
+     * @description 转换一个列族的Cell
+     */
+    public static Map<String, String> toQualifierMap(List<Cell> cells) {
+        Map<String, String> cellMap = new HashMap<String, String>();
+        HBaseCellView cellView = new HBaseCellView();
+        for(Cell cell : cells) {
+            cellView.reset(cell);
+            cellMap.put(cellView.getQualifierString(), cellView.getValueString());
+        }
+
+        return cellMap;
+    }
+
+    /**
+     *
+     * @param cells Cell列表（同一行的Cell按列族排序）
+     * @return 列族到“字段-值”的映射
+     * @description 转换一行的Cell（同一列族的Cell相邻，只在列族变化时创建列族名和Map）
+     */
+    public static Map<String, Map<String, String>> toFamilyMap(List<Cell> cells) {
+        Map<String, Map<String, String>> cellMap = new HashMap<String, Map<String, String>>();
+        HBaseCellView cellView = new HBaseCellView();
+        Map<String, String> familyMap = null;
+        Cell previous = null;
+        for(Cell cell : cells) {
+            cellView.reset(cell);
+            if(previous == null || !sameFamily(previous, cell)) {
+                String familyColumn = cellView.getFamilyString();
+                familyMap = cellMap.get(familyColumn);
+                if(familyMap == null) {
+                    familyMap = new HashMap<String, String>();
+                    cellMap.put(familyColumn, familyMap);
+                }
+            }
+            familyMap.put(cellView.getQualifierString(), cellView.getValueString());
+            previous = cell;
+        }
+
+        return cellMap;
+    }
+
+    private static boolean sameFamily(Cell left, Cell right) {
+        return Bytes.equals(left.getFamilyArray(), left.getFamilyOffset(), left.getFamilyLength(),
+                right.getFamilyArray(), right.getFamilyOffset(), right.getFamilyLength());
+    }
+}
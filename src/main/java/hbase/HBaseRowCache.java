@@ -0,0 +1,217 @@
+package hbase;
+
+import org.apache.hadoop.hbase.Cell;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description 热点行的客户端读缓存（按行的访问顺序淘汰的LRU缓存，并且每条记录在TTL之后过期），可以按整行、列族或者单个Cell缓存，
+ *               行不存在的结果同样会被缓存；HBaseUtil和HBaseBulkWriter的写入、删除操作会使整行的缓存失效，
+ *               但其他客户端对HBase的修改只能等待TTL过期后才能感知
+ */
+public class HBaseRowCache {
+
+    private final int maxRows;
+    private final long ttlNanos;
+    // 表名+行键 -> 该行已缓存的查询（整行、列族或者Cell）
+    private final LinkedHashMap<RowKey, Map<ColumnKey, CacheEntry>> cacheMap;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+    // 每次invalidate加1，用于丢弃查询期间发生写入的查询结果
+    private long version = 0;
+
+    /**
+     *
+     * @param maxRows 最大缓存行数
+     * @param ttl 缓存有效期
+     * @param timeUnit 有效期单位
+     */
+    public HBaseRowCache(int maxRows, long ttl, TimeUnit timeUnit) {
+        if(maxRows <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("maxRows and ttl must be positive");
+        }
+        this.maxRows = maxRows;
+        this.ttlNanos = timeUnit.toNanos(ttl);
+        this.cacheMap = new LinkedHashMap<RowKey, Map<ColumnKey, CacheEntry>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RowKey, Map<ColumnKey, CacheEntry>> eldest) {
+                if(size() > HBaseRowCache.this.maxRows) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyColumn 列族（为null时表示整行）
+     * @param qualifier 字段（为null时表示整个列族）
+     * @return 未缓存或者已过期时返回null，行或者Cell不存在时返回空列表
+     */
+    public synchronized List<Cell> get(String tableName, String rowKey, String familyColumn, String qualifier) {
+        RowKey cacheRowKey = new RowKey(tableName, rowKey);
+        Map<ColumnKey, CacheEntry> rowEntries = cacheMap.get(cacheRowKey);
+        CacheEntry cacheEntry = rowEntries == null ? null : rowEntries.get(new ColumnKey(familyColumn, qualifier));
+        if(cacheEntry == null) {
+            misses++;
+            return null;
+        }
+        if(System.nanoTime() - cacheEntry.createNanos > ttlNanos) {
+            rowEntries.remove(new ColumnKey(familyColumn, qualifier));
+            if(rowEntries.isEmpty()) {
+                cacheMap.remove(cacheRowKey);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+
+        return cacheEntry.cells;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyColumn 列族（为null时表示整行）
+     * @param qualifier 字段（为null时表示整个列族）
+     * @param cells 查询结果（为null表示不存在）
+     * @param readVersion 查询HBase之前getVersion的返回值（查询期间有写入时不缓存，避免缓存旧值）
+     */
+    public synchronized void put(String tableName, String rowKey, String familyColumn, String qualifier, List<Cell> cells,
+                                 long readVersion) {
+        if(readVersion != version) {
+            return;
+        }
+        RowKey cacheRowKey = new RowKey(tableName, rowKey);
+        Map<ColumnKey, CacheEntry> rowEntries = cacheMap.get(cacheRowKey);
+        if(rowEntries == null) {
+            rowEntries = new HashMap<ColumnKey, CacheEntry>(4);
+            cacheMap.put(cacheRowKey, rowEntries);
+        }
+        List<Cell> cachedCells = cells == null ? Collections.<Cell>emptyList() : Collections.unmodifiableList(cells);
+        rowEntries.put(new ColumnKey(familyColumn, qualifier), new CacheEntry(cachedCells, System.nanoTime()));
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @description 使一行的所有缓存（整行、列族以及Cell）失效
+     */
+    public synchronized void invalidate(String tableName, String rowKey) {
+        version++;
+        if(cacheMap.remove(new RowKey(tableName, rowKey)) != null) {
+            invalidations++;
+        }
+    }
+
+    public synchronized void clear() {
+        version++;
+        cacheMap.clear();
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+    public synchronized long getMisses() {
+        return misses;
+    }
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+    public synchronized double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+    public synchronized int size() {
+        return cacheMap.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "rows=" + cacheMap.size() +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations;
+    }
+
+    private static class RowKey {
+        private final String tableName;
+        private final String rowKey;
+
+        RowKey(String tableName, String rowKey) {
+            this.tableName = tableName;
+            this.rowKey = rowKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof RowKey)) {
+                return false;
+            }
+            RowKey other = (RowKey) o;
+            return tableName.equals(other.tableName) && rowKey.equals(other.rowKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tableName.hashCode() + rowKey.hashCode();
+        }
+    }
+
+    private static class ColumnKey {
+        private final String familyColumn;
+        private final String qualifier;
+
+        ColumnKey(String familyColumn, String qualifier) {
+            this.familyColumn = familyColumn;
+            this.qualifier = qualifier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof ColumnKey)) {
+                return false;
+            }
+            ColumnKey other = (ColumnKey) o;
+            return (familyColumn == null ? other.familyColumn == null : familyColumn.equals(other.familyColumn))
+                    && (qualifier == null ? other.qualifier == null : qualifier.equals(other.qualifier));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (familyColumn == null ? 0 : familyColumn.hashCode()) + (qualifier == null ? 0 : qualifier.hashCode());
+        }
+    }
+
+    private static class CacheEntry {
+        private final List<Cell> cells;
+        private final long createNanos;
+
+        CacheEntry(List<Cell> cells, long createNanos) {
+            this.cells = cells;
+            this.createNanos = createNanos;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package hbase;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @description 行键加盐：在行键前加上由行键哈希值得到的固定长度十六进制前缀（桶号），
+ *               顺序递增的行键（rk_001、rk_002……）被均匀分散到bucketCount个桶中，配合按桶预分区可以避免写入集中在一个RegionServer；
+ *               同一个行键总是得到相同的前缀，因此Get、Put、Delete只需对行键编码，而范围扫描需要对每个桶分别扫描后合并
+ */
+public class HBaseRowKeySalter {
+
+    private final int bucketCount;
+    // 前缀长度（bucketCount - 1的十六进制位数）
+    private final int prefixLength;
+    private final byte[][] prefixes;
+
+    /**
+     *
+     * @param bucketCount 桶数（通常与预分区的Region数相同，1到4096之间）
+     */
+    public HBaseRowKeySalter(int bucketCount) {
+        if(bucketCount < 1 || bucketCount > 4096) {
+            throw new IllegalArgumentException("bucketCount must be between 1 and 4096");
+        }
+        this.bucketCount = bucketCount;
+        this.prefixLength = Math.max(1, Integer.toHexString(bucketCount - 1).length());
+        this.prefixes = new byte[bucketCount][];
+        for(int i = 0; i < bucketCount; i++) {
+            prefixes[i] = Bytes.toBytes(prefix(i));
+        }
+    }
+
+    /**
+     *
+     * @param rowKey 原始行键
+     * @return
+     * @description 行键所在的桶（String.hashCode的结果在不同JVM之间一致，再经过murmur3的混合函数使相邻行键分散）
+     */
+    public int bucket(String rowKey) {
+        int h = rowKey.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+
+        return (h & Integer.MAX_VALUE) % bucketCount;
+    }
+
+    /**
+     *
+     * @param rowKey 原始行键
+     * @return 加盐后的行键
+     */
+    public String encode(String rowKey) {
+        return prefix(bucket(rowKey)) + rowKey;
+    }
+
+    /**
+     *
+     * @param rowKey 原始行键
+     * @return 加盐后的行键
+     */
+    public byte[] encodeBytes(String rowKey) {
+        return Bytes.add(prefixes[bucket(rowKey)], Bytes.toBytes(rowKey));
+    }
+
+    /**
+     *
+     * @param saltedRowKey 加盐后的行键（例如Result.getRow()）
+     * @return 原始行键
+     */
+    public String decode(byte[] saltedRowKey) {
+        return Bytes.toString(saltedRowKey, prefixLength, saltedRowKey.length - prefixLength);
+    }
+
+    /**
+     *
+     * @param saltedRowKey 加盐后的行键
+     * @return 原始行键
+     */
+    public String decode(String saltedRowKey) {
+        return saltedRowKey.substring(prefixLength);
+    }
+
+    /**
+     *
+     * @param bucket 桶号
+     * @return
+     * @description 桶的前缀（范围扫描时每个桶的起止行键为前缀加上原始的起止行键）
+     */
+    public byte[] getPrefix(int bucket) {
+        return prefixes[bucket];
+    }
+
+    /**
+     *
+     * @return
+     * @description 按桶预分区的分区键（第1到bucketCount - 1个桶的前缀，第0个桶从表的第一行开始）
+     */
+    public byte[][] getSplitKeys() {
+        byte[][] splitKeys = new byte[bucketCount - 1][];
+        for(int i = 1; i < bucketCount; i++) {
+            splitKeys[i - 1] = prefixes[i];
+        }
+
+        return splitKeys;
+    }
+
+    /**
+     *
+     * @param scan 按原始行键设置起止行键的扫描条件（不支持reversed扫描）
+     * @return 每个桶一个扫描条件（起止行键加上桶的前缀，其他设置与scan相同）
+     * @throws IOException
+     * @description 把原始行键上的范围扫描转换为每个桶上的范围扫描（过滤器看到的仍是加盐后的行键）
+     */
+    public List<Scan> toBucketScans(Scan scan) throws IOException {
+        if(scan.isReversed()) {
+            // 每个桶的起止行键以及各桶结果的归并顺序都按升序计算
+            throw new IllegalArgumentException("reversed scans are not supported on salted tables");
+        }
+        byte[] startRow = scan.getStartRow();
+        byte[] stopRow = scan.getStopRow();
+
+        List<Scan> bucketScans = new ArrayList<Scan>(bucketCount);
+        for(int i = 0; i < bucketCount; i++) {
+            Scan bucketScan = new Scan(scan);
+            bucketScan.withStartRow(Bytes.add(prefixes[i], startRow), scan.includeStartRow());
+            if(stopRow.length > 0) {
+                bucketScan.withStopRow(Bytes.add(prefixes[i], stopRow), scan.includeStopRow());
+            } else {
+                // 扫描到桶的最后一行：前缀的最后一个字符加1
+                byte[] bucketStop = Bytes.copy(prefixes[i]);
+                bucketStop[bucketStop.length - 1]++;
+                bucketScan.withStopRow(bucketStop);
+            }
+            bucketScans.add(bucketScan);
+        }
+
+        return bucketScans;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    private String prefix(int bucket) {
+        String hex = Integer.toHexString(bucket);
+        StringBuilder prefix = new StringBuilder(prefixLength);
+        for(int i = hex.length(); i < prefixLength; i++) {
+            prefix.append('0');
+        }
+
+        return prefix.append(hex).toString();
+    }
+
+    @Override
+    public String toString() {
+        return "bucketCount=" + bucketCount + ", prefixLength=" + prefixLength;
+    }
+}
@@ -0,0 +1,218 @@
+package hbase;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @description 流式扫描结果：每次从ResultScanner取出一个Result，客户端最多缓存一批（caching行或maxResultSize字节）数据，
+ *               内存占用与扫描范围的大小无关；使用完后需要close（同时关闭ResultScanner和Table）
+ *               加盐的表对每个桶分别扫描，按去掉前缀后的行键归并输出（顺序与未加盐时相同，Result中的行键仍带有前缀）
+ *               扫描中途出错时hasNext返回false并关闭扫描，此时isFailed为true，已经返回的结果不完整
+ */
+public class HBaseRowScanner implements Iterable<Result>, Iterator<Result>, Closeable {
+
+    private final Table table;
+    private final List<ResultScanner> resultScanners;
+    // 多个ResultScanner时按行键（跳过前缀）归并，队列中保存每个ResultScanner的下一个Result
+    private final PriorityQueue<ScannerHead> mergeQueue;
+    private final int prefixLength;
+    // 最多返回的行数（小于等于0表示不限制）
+    private final long rowLimit;
+    // close时记录整个扫描的耗时和行数
+    private final HBaseMetrics.Timer timer;
+    private boolean failed = false;
+
+    private Result next;
+    private byte[] lastRow;
+    private long rowCount = 0;
+    private long resultCount = 0;
+    private boolean closed = false;
+    private boolean mergeStarted = false;
+
+    HBaseRowScanner(Table table, ResultScanner resultScanner, long rowLimit) {
+        this(table, Collections.singletonList(resultScanner), 0, rowLimit, HBaseMetrics.Timer.NOOP);
+    }
+
+    /**
+     *
+     * @param table 表
+     * @param resultScanners 每个桶的ResultScanner（每个ResultScanner内部按行键有序）
+     * @param prefixLength 归并时跳过的行键前缀长度
+     * @param rowLimit 最多返回的行数
+     * @param timer 扫描计时
+     */
+    HBaseRowScanner(Table table, List<ResultScanner> resultScanners, int prefixLength, long rowLimit, HBaseMetrics.Timer timer) {
+        this.table = table;
+        this.timer = timer;
+        this.resultScanners = resultScanners;
+        this.prefixLength = prefixLength;
+        this.rowLimit = rowLimit;
+        this.mergeQueue = resultScanners.size() > 1 ? new PriorityQueue<ScannerHead>(resultScanners.size()) : null;
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(next != null) {
+            return true;
+        }
+        if(closed) {
+            return false;
+        }
+        try {
+            Result result = nextResult();
+            if(result != null && !result.isEmpty()) {
+                // 设置了setBatch时一行可能被拆分成多个Result，只有行键变化时才计为新的一行
+                boolean newRow = lastRow == null || !Bytes.equals(lastRow, result.getRow());
+                if(newRow && rowLimit > 0 && rowCount >= rowLimit) {
+                    result = null;
+                } else if(newRow) {
+                    rowCount++;
+                    lastRow = result.getRow();
+                }
+            }
+            if(result == null) {
+                close();
+                return false;
+            }
+            resultCount++;
+            next = result;
+
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            failed = true;
+            close();
+        }
+
+        return false;
+    }
+
+    private Result nextResult() throws IOException {
+        if(mergeQueue == null) {
+            return resultScanners.get(0).next();
+        }
+        if(!mergeStarted) {
+            // 第一次调用时从每个ResultScanner取出第一个Result
+            mergeStarted = true;
+            for(ResultScanner resultScanner : resultScanners) {
+                pushNext(resultScanner);
+            }
+        }
+        ScannerHead head = mergeQueue.poll();
+        if(head == null) {
+            return null;
+        }
+        pushNext(head.resultScanner);
+
+        return head.result;
+    }
+
+    private void pushNext(ResultScanner resultScanner) throws IOException {
+        Result result = resultScanner.next();
+        if(result != null) {
+            mergeQueue.add(new ScannerHead(result, resultScanner, prefixLength));
+        }
+    }
+
+    @Override
+    public Result next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Result result = next;
+        next = null;
+
+        return result;
+    }
+
+    /**
+     *
+     * @return
+     * @description 转换为顺序Stream（关闭Stream时关闭扫描）
+     */
+    public Stream<Result> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * @description 关闭ResultScanner和Table（扫描结束时自动关闭，重复调用无影响）
+     */
+    public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        for(ResultScanner resultScanner : resultScanners) {
+            resultScanner.close();
+        }
+        if(failed) {
+            timer.failure();
+        } else {
+            timer.success(rowCount);
+        }
+        try {
+            table.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+    public long getResultCount() {
+        return resultCount;
+    }
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     *
+     * @return 扫描中途出错时为true（hasNext返回false不代表已经扫描完整个范围，需要检查isFailed）
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    private static class ScannerHead implements Comparable<ScannerHead> {
+        private final Result result;
+        private final ResultScanner resultScanner;
+        private final int prefixLength;
+
+        ScannerHead(Result result, ResultScanner resultScanner, int prefixLength) {
+            this.result = result;
+            this.resultScanner = resultScanner;
+            this.prefixLength = prefixLength;
+        }
+
+        // 按升序归并（加盐的表不支持reversed扫描，见HBaseRowKeySalter.toBucketScans）
+        @Override
+        public int compareTo(ScannerHead other) {
+            byte[] row = result.getRow();
+            byte[] otherRow = other.result.getRow();
+            return Bytes.compareTo(row, prefixLength, row.length - prefixLength,
+                    otherRow, prefixLength, otherRow.length - prefixLength);
+        }
+    }
+}
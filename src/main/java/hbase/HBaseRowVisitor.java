@@ -0,0 +1,24 @@
+package hbase;
+
+/**
+ * @description 逐个访问Cell的回调（由HBaseResultMapper调用），Cell通过复用的HBaseCellView传入，访问过程中不为每个Cell创建对象
+ */
+public interface HBaseRowVisitor {
+
+    /**
+     *
+     * @param cell 当前Cell的视图（只在本次调用中有效）
+     * @return 返回false时停止访问后续的Cell和行
+     */
+    boolean visitCell(HBaseCellView cell);
+
+    /**
+     *
+     * @param lastCell 该行最后一个Cell的视图
+     * @return 返回false时停止访问后续的行
+     * @description 一行的所有Cell访问完之后调用
+     */
+    default boolean endRow(HBaseCellView lastCell) {
+        return true;
+    }
+}
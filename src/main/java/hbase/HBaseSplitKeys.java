@@ -0,0 +1,61 @@
+package hbase;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * @description 预分区的分区键计算（N个Region需要N - 1个分区键，第一个Region从表的第一行开始，最后一个Region到表的最后一行结束）
+ */
+public class HBaseSplitKeys {
+
+    private HBaseSplitKeys() {
+    }
+
+    /**
+     *
+     * @param startKey 行键下界（例如"rk_000"）
+     * @param endKey 行键上界（例如"rk_999"）
+     * @param regions Region数
+     * @return 分区键，参数不合法时返回null
+     * @description 在[startKey, endKey]之间按字节均匀计算分区键，适用于行键在该范围内均匀分布的情况
+     */
+    public static byte[][] uniform(String startKey, String endKey, int regions) {
+        if(regions < 2) {
+            return new byte[0][];
+        }
+        // Bytes.split返回包含startKey和endKey在内的regions + 1个行键
+        byte[][] keys = Bytes.split(Bytes.toBytes(startKey), Bytes.toBytes(endKey), regions - 1);
+        if(keys == null) {
+            return null;
+        }
+        byte[][] splitKeys = new byte[regions - 1][];
+        System.arraycopy(keys, 1, splitKeys, 0, regions - 1);
+
+        return splitKeys;
+    }
+
+    /**
+     *
+     * @param sampleKeys 行键样本（例如已有数据中随机抽取的行键）
+     * @param regions Region数
+     * @return 分区键（样本中不同的行键少于regions个时分区数相应减少）
+     * @description 按样本的分位数计算分区键，使每个Region的行数大致相同，适用于行键分布不均匀的情况
+     */
+    public static byte[][] fromSample(Collection<String> sampleKeys, int regions) {
+        TreeSet<String> sortedKeys = new TreeSet<String>(sampleKeys);
+        String[] keys = sortedKeys.toArray(new String[0]);
+        int splitCount = Math.min(regions - 1, keys.length - 1);
+        if(splitCount <= 0) {
+            return new byte[0][];
+        }
+
+        TreeSet<byte[]> splitKeys = new TreeSet<byte[]>(Bytes.BYTES_COMPARATOR);
+        for(int i = 1; i <= splitCount; i++) {
+            splitKeys.add(Bytes.toBytes(keys[(int) ((long) i * keys.length / (splitCount + 1))]));
+        }
+
+        return splitKeys.toArray(new byte[0][]);
+    }
+}
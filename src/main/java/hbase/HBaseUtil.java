@@ -1,16 +1,31 @@
 package hbase;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.*;
 import org.apache.hadoop.hbase.client.*;
-import org.apache.hadoop.hbase.filter.*;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.RandomRowFilter;
+import org.apache.hadoop.hbase.tool.LoadIncrementalHFiles;
 import org.apache.hadoop.hbase.util.Bytes;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * @description HBase操作类（HBase的Java API都是完全面向对象实现的）
@@ -21,6 +36,17 @@ public class HBaseUtil {
     private Connection connection = null;
     // HBase配制文件对象
     private Configuration configuration = null;
+    // 热点行读缓存（为null时不缓存）
+    private HBaseRowCache rowCache = null;
+    // 操作指标（为null时不统计）
+    private HBaseMetrics metrics = null;
+    // 行键加盐的表（表名 -> 加盐方式），这些表的插入、删除、查询和扫描方法自动对行键编码
+    private final Map<String, HBaseRowKeySalter> rowKeySalters = new ConcurrentHashMap<String, HBaseRowKeySalter>();
+
+    // 批量查询时每次multi-get请求包含的默认行数
+    public static final int DEFAULT_GET_CHUNK_SIZE = 1000;
+    // 批量删除时每批的默认行数
+    public static final int DEFAULT_DELETE_BATCH_SIZE = 1000;
 
     /**
      * @description 初始化HBase连接
@@ -40,6 +66,29 @@ public class HBaseUtil {
         }
     }
 
+    /**
+     *
+     * @param zksStr zookeeper集群
+     * @param rowCache 热点行读缓存（getCellValue、getFamilyColumnValue、getRowValue先查询缓存）
+     * @description 初始化带有读缓存的HBase连接
+     */
+    public HBaseUtil(String zksStr, HBaseRowCache rowCache) {
+        this(zksStr);
+        this.rowCache = rowCache;
+    }
+
+    /**
+     *
+     * @param zksStr zookeeper集群
+     * @param rowCache 热点行读缓存（为null时不缓存）
+     * @param metrics 操作指标（每个表的建表、删表、插入、删除、查询、扫描操作的次数、失败次数以及延迟分布）
+     * @description 初始化带有操作指标的HBase连接
+     */
+    public HBaseUtil(String zksStr, HBaseRowCache rowCache, HBaseMetrics metrics) {
+        this(zksStr, rowCache);
+        this.metrics = metrics;
+    }
+
     /**
      *
      * @param tableName 表名
@@ -47,6 +96,18 @@ public class HBaseUtil {
      * @description 创建HBase表
      */
     public void createTable(String tableName, String[] familyColumns) {
+        createTable(tableName, familyColumns, null);
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param familyColumns 列族数组
+     * @param splitKeys 预分区的分区键（N - 1个分区键创建N个Region，为null时只创建一个Region），见HBaseSplitKeys
+     * @description 创建预分区的HBase表（写入从一开始就分散到多个RegionServer，而不是等待Region分裂）
+     */
+    public void createTable(String tableName, String[] familyColumns, byte[][] splitKeys) {
+        HBaseMetrics.Timer timer = startTimer(tableName, "createTable");
         TableName hTableName = TableName.valueOf(tableName);
         HTableDescriptor hTableDescriptor = new HTableDescriptor(hTableName);
         try {
@@ -59,33 +120,74 @@ public class HBaseUtil {
                     HColumnDescriptor hColumnDescriptor = new HColumnDescriptor(familyColumn);
                     hTableDescriptor.addFamily(hColumnDescriptor);
                 }
-                admin.createTable(hTableDescriptor);
+                if(splitKeys == null || splitKeys.length == 0) {
+                    admin.createTable(hTableDescriptor);
+                } else {
+                    admin.createTable(hTableDescriptor, splitKeys);
+                }
                 System.err.println("创建表" + tableName + "成功!");
             }
             admin.close();
+            timer.success(1);
         } catch (Exception e) {
+            timer.failure();
             e.printStackTrace();
         }
     }
 
+    /**
+     *
+     * @param tableName 表名
+     * @param familyColumns 列族数组
+     * @param rowKeySalter 行键加盐方式（按桶预分区，每个桶一个Region）
+     * @description 创建行键加盐的HBase表，并在当前对象中注册加盐方式
+     */
+    public void createSaltedTable(String tableName, String[] familyColumns, HBaseRowKeySalter rowKeySalter) {
+        createTable(tableName, familyColumns, rowKeySalter.getSplitKeys());
+        setRowKeySalter(tableName, rowKeySalter);
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKeySalter 行键加盐方式（为null时取消）
+     * @description 为已经存在的加盐表注册加盐方式（桶数必须与写入时相同），
+     *               之后insertCell、insertCells、deleteCell、getCellList、getRows、scanRows、scanRowsParallel以及批量写入都使用原始行键
+     */
+    public void setRowKeySalter(String tableName, HBaseRowKeySalter rowKeySalter) {
+        if(rowKeySalter == null) {
+            rowKeySalters.remove(tableName);
+        } else {
+            rowKeySalters.put(tableName, rowKeySalter);
+        }
+    }
+
+    public HBaseRowKeySalter getRowKeySalter(String tableName) {
+        return rowKeySalters.get(tableName);
+    }
+
     /**
      *
      * @param tableName 表名
      * @description 删除HBase表
      */
     public void dropTable(String tableName) {
+        HBaseMetrics.Timer timer = startTimer(tableName, "dropTable");
         TableName hTableName = TableName.valueOf(tableName);
         try {
             Admin admin = connection.getAdmin();
             if(admin.tableExists(hTableName)) {
                 admin.disableTable(hTableName);
                 admin.deleteTable(hTableName);
+                rowKeySalters.remove(tableName);
                 System.err.println("删除表" + tableName + "成功!");
             } else {
                 System.err.println("需要删除的表" + tableName + "不存在！");
             }
             admin.close();
+            timer.success(1);
         } catch (Exception e) {
+            timer.failure();
             e.printStackTrace();
         }
     }
@@ -102,18 +204,22 @@ public class HBaseUtil {
      *
      */
     public boolean insertCell(String tableName, String rowKey, String familyColumn, String qualifier, String value) {
+        HBaseMetrics.Timer timer = startTimer(tableName, "insertCell");
         TableName hTableName = TableName.valueOf(tableName);
         try {
             // Table用于管理表数据，类似于DML（Table的put，delete，get方法均支持传入List进行批量操作）
             Table table = connection.getTable(hTableName);
             // Put、Delete、Get由行键确定，即Put等对应HBase表的一行
-            Put put = new Put(Bytes.toBytes(rowKey));
+            Put put = new Put(toRowBytes(tableName, rowKey));
             put.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier), Bytes.toBytes(value));
             table.put(put);
             table.close();
+            invalidateRow(tableName, rowKey);
+            timer.success(1);
 
             return true;
         } catch (Exception e) {
+            timer.failure();
             e.printStackTrace();
         }
 
@@ -131,18 +237,79 @@ public class HBaseUtil {
      * @description 向指定HBase表的固定行固定列族插入多个Cell
      */
     public boolean insertCells(String tableName, String rowKey, String familyColumn, String[] qualifiers, String[] values) {
+        HBaseMetrics.Timer timer = startTimer(tableName, "insertCells");
         TableName hTableName = TableName.valueOf(tableName);
         try {
             Table table = connection.getTable(hTableName);
-            Put put = new Put(Bytes.toBytes(rowKey));
+            Put put = new Put(toRowBytes(tableName, rowKey));
             for(int i = 0; i < qualifiers.length; i++) {
                 put.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifiers[i]), Bytes.toBytes(values[i]));
             }
             table.put(put);
             table.close();
+            invalidateRow(tableName, rowKey);
+            timer.success(1);
+
+            return true;
+        } catch (Exception e) {
+            timer.failure();
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param writeBufferSize 客户端写缓冲区大小（字节）
+     * @param flushIntervalMillis 定时刷新间隔（毫秒，小于等于0表示只在缓冲区写满时发送）
+     * @return 批量写入对象(使用完后需要close)，创建失败返回null
+     * @description 创建基于BufferedMutator的批量写入对象，用于大量数据的导入（代替循环调用insertCell）
+     */
+    public HBaseBulkWriter createBulkWriter(String tableName, long writeBufferSize, long flushIntervalMillis) {
+        try {
+            return new HBaseBulkWriter(connection, tableName, writeBufferSize, flushIntervalMillis, rowCache,
+                    rowKeySalters.get(tableName));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param hfilePath HFile所在的文件夹（HFileOutputFormat2的输出路径，每个列族一个子文件夹）
+     * @param tableName 表名
+     * @return
+     * @description 把HFile直接移动到表的Region中（不经过WAL和MemStore），每个HFile对所在Region的导入是原子的，
+     *               导入失败的HFile保留在原路径下，可以再次调用导入；导入后使读缓存失效
+     */
+    public boolean bulkLoadHFiles(String hfilePath, String tableName) {
+        HBaseMetrics.Timer timer = startTimer(tableName, "bulkLoadHFiles");
+        TableName hTableName = TableName.valueOf(tableName);
+        try {
+            Admin admin = connection.getAdmin();
+            Table table = connection.getTable(hTableName);
+            RegionLocator regionLocator = connection.getRegionLocator(hTableName);
+            try {
+                LoadIncrementalHFiles loadIncrementalHFiles = new LoadIncrementalHFiles(configuration);
+                loadIncrementalHFiles.doBulkLoad(new Path(hfilePath), admin, table, regionLocator);
+            } finally {
+                regionLocator.close();
+                table.close();
+                admin.close();
+            }
+            if(rowCache != null) {
+                rowCache.clear();
+            }
+            System.err.println("导入HFile到表" + tableName + "成功!");
+            timer.success(1);
 
             return true;
         } catch (Exception e) {
+            timer.failure();
             e.printStackTrace();
         }
 
@@ -159,10 +326,11 @@ public class HBaseUtil {
      * @description 在指定HBase表中删除一个Cell
      */
     public boolean deleteCell(String tableName, String rowKey, String familyColumn, String qualifier) {
+        HBaseMetrics.Timer timer = startTimer(tableName, "deleteCell");
         TableName hTableName = TableName.valueOf(tableName);
         try {
             Table table = connection.getTable(hTableName);
-            Delete delete = new Delete(Bytes.toBytes(rowKey));
+            Delete delete = new Delete(toRowBytes(tableName, rowKey));
             if(qualifier != null) {
                 // 删除一个Cell
                 delete.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier));
@@ -173,9 +341,12 @@ public class HBaseUtil {
             // 未设置qualifier和familyColumn将删除整行
             table.delete(delete);
             table.close();
+            invalidateRow(tableName, rowKey);
+            timer.success(1);
 
             return true;
         } catch (Exception e) {
+            timer.failure();
             e.printStackTrace();
         }
 
@@ -205,6 +376,116 @@ public class HBaseUtil {
         return deleteCell(tableName, rowKey, null, null);
     }
 
+    /**
+     *
+     * @param tableName 表名
+     * @param query 删除条件（行键范围、过滤器以及行数限制，满足条件的行整行删除）
+     * @param rowKeyFilter 客户端的行键条件（可以为null）
+     * @param parallelism 同时扫描的Region数，也是同时发送的最大批次数
+     * @param batchSize 每批删除的行数
+     * @param dryRun 为true时只统计满足条件的行数，不删除
+     * @param progressListener 进度回调（可以为null，大约每5秒以及结束时调用一次）
+     * @return 删除结果（有Region扫描失败或者行删除失败时为部分结果），打开扫描失败返回null
+     * @description 按条件批量删除行：按Region并行扫描，只返回行键（没有过滤条件时每行只返回第一个Key），
+     *               满足条件的行组成List<Delete>批量发送，代替循环调用deleteRow
+     */
+    public HBaseRangeDeleter deleteRows(String tableName, HBaseQuery query, Predicate<String> rowKeyFilter, int parallelism,
+                                        int batchSize, boolean dryRun, Consumer<HBaseRangeDeleter> progressListener) {
+        HBaseRowKeySalter rowKeySalter = rowKeySalters.get(tableName);
+        HBaseMetrics.Timer timer = startTimer(tableName, dryRun ? "deleteRowsDryRun" : "deleteRows");
+        try {
+            Scan scan = query.toScan();
+            Filter filter = scan.getFilter();
+            if(filter == null) {
+                scan.setFilter(new FilterList(FilterList.Operator.MUST_PASS_ALL, new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+            } else {
+                // 值过滤器需要看到每个Cell，不能只返回第一个Key（KeyOnlyFilter只在过滤之后去掉值）
+                scan.setFilter(new FilterList(FilterList.Operator.MUST_PASS_ALL, filter, new KeyOnlyFilter()));
+            }
+            if(scan.getCaching() <= 0) {
+                scan.setCaching(batchSize);
+            }
+            scan.setCacheBlocks(false);
+            List<Scan> scans = rowKeySalter == null ? Collections.singletonList(scan) : rowKeySalter.toBucketScans(scan);
+            HBaseParallelScanner keyScanner = new HBaseParallelScanner(connection, tableName, scans, parallelism,
+                    Math.max(batchSize, 1000), false, HBaseMetrics.Timer.NOOP);
+
+            HBaseRangeDeleter rangeDeleter = new HBaseRangeDeleter(connection, tableName, batchSize, parallelism, dryRun,
+                    rowCache, rowKeySalter, progressListener);
+            rangeDeleter.run(keyScanner, rowKeyFilter, query.getLimit());
+            if(rangeDeleter.getFailedRows() > 0 || rangeDeleter.getFailedRegionCount() > 0) {
+                timer.failure();
+            } else {
+                timer.success(dryRun ? rangeDeleter.getMatchedRows() : rangeDeleter.getDeletedRows());
+            }
+
+            return rangeDeleter;
+        } catch (Exception e) {
+            timer.failure();
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param startRow 起始行（包括，为null时从第一行开始）
+     * @param stopRow 结束行（不包括，为null时删除到最后一行；不能两者都为null，删除全表数据需要使用带wholeTable参数的方法）
+     * @param parallelism 同时扫描的Region数
+     * @param dryRun 为true时只统计满足条件的行数，不删除
+     * @return 删除结果，打开扫描失败返回null
+     * @description 按行键范围批量删除行，进度输出到标准错误
+     */
+    public HBaseRangeDeleter deleteRowsWithRange(String tableName, String startRow, String stopRow, int parallelism, boolean dryRun) {
+        return deleteRowsWithRange(tableName, startRow, stopRow, parallelism, dryRun, false);
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param startRow 起始行（包括，为null时从第一行开始）
+     * @param stopRow 结束行（不包括，为null时删除到最后一行）
+     * @param parallelism 同时扫描的Region数
+     * @param dryRun 为true时只统计满足条件的行数，不删除
+     * @param wholeTable startRow和stopRow都为null时必须为true（确认删除全表数据）
+     * @return 删除结果，打开扫描失败返回null
+     * @description 按行键范围批量删除行，进度输出到标准错误
+     */
+    public HBaseRangeDeleter deleteRowsWithRange(String tableName, String startRow, String stopRow, int parallelism,
+                                                 boolean dryRun, boolean wholeTable) {
+        if(startRow == null && stopRow == null && !wholeTable) {
+            throw new IllegalArgumentException("startRow and stopRow are both null, set wholeTable to delete every row");
+        }
+        HBaseQuery query = HBaseQuery.and()
+                .rowRange(startRow, stopRow);
+
+        return deleteRows(tableName, query, null, parallelism, DEFAULT_DELETE_BATCH_SIZE, dryRun,
+                rangeDeleter -> System.err.println("批量删除进度：" + rangeDeleter));
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param prefix 行键前缀（不能为null或者空字符串）
+     * @param parallelism 同时扫描的Region数
+     * @param dryRun 为true时只统计满足条件的行数，不删除
+     * @return 删除结果，打开扫描失败返回null
+     * @description 按行键前缀批量删除行（前缀转换为扫描范围），进度输出到标准错误
+     */
+    public HBaseRangeDeleter deleteRowsWithPrefix(String tableName, String prefix, int parallelism, boolean dryRun) {
+        if(prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("prefix must not be null or empty");
+        }
+        HBaseQuery query = HBaseQuery.and()
+                .rowPrefix(prefix);
+
+        // 前缀转换后的扫描范围可能没有结束行（例如全部为0xFF的前缀），客户端再检查一次前缀
+        return deleteRows(tableName, query, rowKey -> rowKey.startsWith(prefix), parallelism, DEFAULT_DELETE_BATCH_SIZE, dryRun,
+                rangeDeleter -> System.err.println("批量删除进度：" + rangeDeleter));
+    }
+
     /**
      *
      * @param tableName 表名
@@ -215,10 +496,22 @@ public class HBaseUtil {
      * @description 获取Cell列表
      */
     public List<Cell> getCellList(String tableName, String rowKey, String familyColumn, String qualifier) {
+        long cacheVersion = 0;
+        if(rowCache != null) {
+            HBaseMetrics.Timer cacheTimer = startTimer(tableName, "getCached");
+            List<Cell> cachedCells = rowCache.get(tableName, rowKey, familyColumn, qualifier);
+            if(cachedCells != null) {
+                cacheTimer.success(cachedCells.isEmpty() ? 0 : 1);
+                return cachedCells.isEmpty() ? null : new ArrayList<Cell>(cachedCells);
+            }
+            cacheVersion = rowCache.getVersion();
+        }
+
+        HBaseMetrics.Timer timer = startTimer(tableName, "get");
         TableName hTableName = TableName.valueOf(tableName);
         try {
             Table table = connection.getTable(hTableName);
-            Get get = new Get(Bytes.toBytes(rowKey));
+            Get get = new Get(toRowBytes(tableName, rowKey));
             if(qualifier != null) {
                 // 获取一个Cell
                 get.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier));
@@ -232,9 +525,14 @@ public class HBaseUtil {
 
             List<Cell> cellList = result.listCells();
             table.close();
+            if(rowCache != null) {
+                rowCache.put(tableName, rowKey, familyColumn, qualifier, cellList, cacheVersion);
+            }
+            timer.success(cellList == null ? 0 : 1);
 
             return cellList;
         } catch (Exception e) {
+            timer.failure();
             e.printStackTrace();
         }
 
@@ -257,7 +555,9 @@ public class HBaseUtil {
             return null;
         }
 
-        return Bytes.toString(CellUtil.cloneValue(cellList.get(0)));
+        Cell cell = cellList.get(0);
+
+        return Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
     }
 
     /**
@@ -269,18 +569,13 @@ public class HBaseUtil {
      * @description 获取特定列族的值
      */
     public Map<String, String> getFamilyColumnValue(String tableName, String rowKey, String familyColumn) {
-        Map<String, String> cellMap = new HashMap<String, String>();
         List<Cell> cellList = getCellList(tableName, rowKey, familyColumn, null);
 
         if(cellList == null || cellList.size() == 0) {
             return null;
         }
 
-        for(Cell cell : cellList) {
-            cellMap.put(Bytes.toString(CellUtil.cloneQualifier(cell)), Bytes.toString(CellUtil.cloneValue(cell)));
-        }
-
-        return cellMap;
+        return HBaseResultMapper.toQualifierMap(cellList);
     }
 
     /**
@@ -291,22 +586,173 @@ public class HBaseUtil {
      * @description 获取特定行的值
      */
     public Map<String, Map<String, String>> getRowValue(String tableName, String rowKey) {
-        Map<String, Map<String, String>> cellMap = new HashMap<String, Map<String, String>>();
         List<Cell> cellList = getCellList(tableName, rowKey, null, null);
 
         if(cellList == null || cellList.size() == 0) {
             return null;
         }
 
-        for(Cell cell : cellList) {
-            String familyColumn = Bytes.toString(CellUtil.cloneFamily(cell));
-            if(!cellMap.containsKey(familyColumn)) {
-                cellMap.put(familyColumn, new HashMap<String, String>());
+        return HBaseResultMapper.toFamilyMap(cellList);
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKey 行键
+     * @param familyColumn 列族（为null时访问整行）
+     * @param qualifier 字段（为null时访问整个列族）
+     * @param visitor 访问回调
+     * @return 查询失败或者行不存在返回false
+     * @description 逐个访问一行的Cell，不创建Map和String
+     */
+    public boolean visitRow(String tableName, String rowKey, String familyColumn, String qualifier, HBaseRowVisitor visitor) {
+        List<Cell> cellList = getCellList(tableName, rowKey, familyColumn, qualifier);
+
+        if(cellList == null || cellList.size() == 0) {
+            return false;
+        }
+        HBaseResultMapper.visit(cellList, visitor);
+
+        return true;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKeys 行键集合（重复的行键只查询一次）
+     * @param familyColumn 列族（为null时获取整行）
+     * @param qualifiers 字段数组（为null时获取整个列族）
+     * @param chunkSize 每次multi-get请求包含的行数
+     * @param parallelism 并发发送multi-get请求的线程数（小于等于1时在当前线程中依次发送）
+     * @return 行键到Result的映射（不存在的行不包含在内），查询失败返回null
+     * @description 批量获取多行：按chunkSize分组调用Table.get(List<Get>)，客户端再按Region所在的RegionServer合并请求，
+     *               查询上万个行键只需要少量RPC
+     */
+    public Map<String, Result> getRows(String tableName, Collection<String> rowKeys, String familyColumn, String[] qualifiers,
+                                       int chunkSize, int parallelism) {
+        TableName hTableName = TableName.valueOf(tableName);
+        int size = chunkSize > 0 ? chunkSize : DEFAULT_GET_CHUNK_SIZE;
+
+        List<List<Get>> chunks = new ArrayList<List<Get>>();
+        List<Get> chunk = new ArrayList<Get>(size);
+        for(String rowKey : new LinkedHashSet<String>(rowKeys)) {
+            Get get = new Get(toRowBytes(tableName, rowKey));
+            if(qualifiers != null) {
+                for(String qualifier : qualifiers) {
+                    get.addColumn(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier));
+                }
+            } else if(familyColumn != null) {
+                get.addFamily(Bytes.toBytes(familyColumn));
+            }
+            chunk.add(get);
+            if(chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new ArrayList<Get>(size);
             }
-            cellMap.get(familyColumn).put(Bytes.toString(CellUtil.cloneQualifier(cell)), Bytes.toString(CellUtil.cloneValue(cell)));
         }
+        if(chunk.size() > 0) {
+            chunks.add(chunk);
+        }
+
+        Map<String, Result> rowMap = new HashMap<String, Result>();
+        ExecutorService executorService = null;
+        HBaseMetrics.Timer timer = startTimer(tableName, "getRows");
+        try {
+            if(parallelism <= 1 || chunks.size() <= 1) {
+                for(List<Get> gets : chunks) {
+                    getChunk(hTableName, gets, rowMap);
+                }
+            } else {
+                executorService = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+                List<Future<Map<String, Result>>> futures = new ArrayList<Future<Map<String, Result>>>();
+                for(final List<Get> gets : chunks) {
+                    // Table不是线程安全的，每个线程从Connection获取各自的Table
+                    futures.add(executorService.submit(() -> getChunk(hTableName, gets, new HashMap<String, Result>())));
+                }
+                for(Future<Map<String, Result>> future : futures) {
+                    rowMap.putAll(future.get());
+                }
+            }
+            timer.success(rowMap.size());
 
-        return cellMap;
+            return rowMap;
+        } catch (Exception e) {
+            timer.failure();
+            e.printStackTrace();
+        } finally {
+            if(executorService != null) {
+                executorService.shutdownNow();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKeys 行键集合
+     * @param familyColumn 列族
+     * @param qualifier 字段
+     * @return 行键到Cell值的映射（不存在的Cell不包含在内）
+     * @description 批量获取多行中特定Cell的值
+     */
+    public Map<String, String> getCellValues(String tableName, Collection<String> rowKeys, String familyColumn, String qualifier) {
+        Map<String, Result> rowMap = getRows(tableName, rowKeys, familyColumn, new String[] {qualifier},
+                DEFAULT_GET_CHUNK_SIZE, 1);
+
+        if(rowMap == null) {
+            return null;
+        }
+
+        Map<String, String> valueMap = new HashMap<String, String>();
+        for(Map.Entry<String, Result> entry : rowMap.entrySet()) {
+            byte[] value = entry.getValue().getValue(Bytes.toBytes(familyColumn), Bytes.toBytes(qualifier));
+            if(value != null) {
+                valueMap.put(entry.getKey(), Bytes.toString(value));
+            }
+        }
+
+        return valueMap;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param rowKeys 行键集合
+     * @return 行键到“列族-字段-值”的映射（不存在的行不包含在内）
+     * @description 批量获取多行的值（与getRowValue的返回结构相同）
+     */
+    public Map<String, Map<String, Map<String, String>>> getRowValues(String tableName, Collection<String> rowKeys) {
+        Map<String, Result> rowMap = getRows(tableName, rowKeys, null, null, DEFAULT_GET_CHUNK_SIZE, 1);
+
+        if(rowMap == null) {
+            return null;
+        }
+
+        Map<String, Map<String, Map<String, String>>> valueMap = new HashMap<String, Map<String, Map<String, String>>>();
+        for(Map.Entry<String, Result> entry : rowMap.entrySet()) {
+            valueMap.put(entry.getKey(), HBaseResultMapper.toFamilyMap(entry.getValue().listCells()));
+        }
+
+        return valueMap;
+    }
+
+    // 发送一次multi-get请求，并将存在的行放入rowMap
+    private Map<String, Result> getChunk(TableName hTableName, List<Get> gets, Map<String, Result> rowMap) throws IOException {
+        Table table = connection.getTable(hTableName);
+        try {
+            Result[] results = table.get(gets);
+            for(Result result : results) {
+                if(result != null && !result.isEmpty()) {
+                    rowMap.put(fromRowBytes(hTableName.getNameAsString(), result.getRow()), result);
+                }
+            }
+        } finally {
+            table.close();
+        }
+
+        return rowMap;
     }
 
     /**
@@ -314,29 +760,181 @@ public class HBaseUtil {
      * @param tableName 表名
      * @param startRow 起始行（包括）
      * @param stopRow 结束行（不包括）
-     * @return Get返回Result或者List<Cell>，Scan返回ResultScanner或者List<Result>
+     * @return Get返回Result或者List<Cell>，Scan返回ResultScanner或者List<Result>（扫描失败或者中途出错时返回null）
      * @description 根据行键进行范围查询（startRow <= rowKey < stopRow）  HBase表中的行根据rowkey的ASCII码进行排序，小的在前大的在后。
      */
     public List<Result> scanRowsWithRange(String tableName, String startRow, String stopRow) {
-        List<Result> rowList = null;
+        HBaseRowScanner rowScanner = scanRows(tableName, startRow, stopRow, 0, 0, 0, 0);
+
+        if(rowScanner == null) {
+            return null;
+        }
+
+        // 全部结果放入内存，范围较大时使用scanRows逐行处理
+        List<Result> rowList = new ArrayList<Result>();
+        for(Result row : rowScanner) {
+            rowList.add(row);
+        }
+        rowScanner.close();
+
+        // 扫描中途出错时结果不完整
+        return rowScanner.isFailed() ? null : rowList;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param startRow 起始行（包括，为null时从第一行开始）
+     * @param stopRow 结束行（不包括，为null时扫描到最后一行）
+     * @param caching 每次RPC返回的行数（小于等于0时使用hbase.client.scanner.caching配置）
+     * @param batch 每个Result最多包含的Cell数（用于宽行，小于等于0表示不拆分行）
+     * @param maxResultSize 每次RPC返回的最大字节数（小于等于0时使用hbase.client.scanner.max.result.size配置）
+     * @param rowLimit 最多返回的行数（小于等于0表示不限制）
+     * @return 流式扫描结果(使用完后需要close，遍历结束后isFailed为true时结果不完整)，打开失败返回null
+     * @description 根据行键进行范围查询，结果逐行从RegionServer拉取而不是一次全部放入内存
+     */
+    public HBaseRowScanner scanRows(String tableName, String startRow, String stopRow, int caching, int batch,
+                                    long maxResultSize, long rowLimit) {
+        Scan scan = new Scan();
+        if(startRow != null) {
+            scan.withStartRow(Bytes.toBytes(startRow));
+        }
+        if(stopRow != null) {
+            scan.withStopRow(Bytes.toBytes(stopRow));
+        }
+        if(caching > 0) {
+            scan.setCaching(caching);
+        }
+        if(batch > 0) {
+            scan.setBatch(batch);
+        }
+        if(maxResultSize > 0) {
+            scan.setMaxResultSize(maxResultSize);
+        }
+        if(rowLimit > 0 && rowLimit <= Integer.MAX_VALUE && batch <= 0) {
+            // 由服务端提前结束扫描；设置了batch时一行会被拆分成多个Result，只在客户端按行计数
+            scan.setLimit((int) rowLimit);
+        }
 
+        return scanRows(tableName, scan, rowLimit);
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param scan 扫描条件（加盐的表不支持reversed扫描，抛出IllegalArgumentException）
+     * @param rowLimit 最多返回的行数（小于等于0表示不限制）
+     * @return 流式扫描结果(使用完后需要close，遍历结束后isFailed为true时结果不完整)，打开失败返回null
+     * @description 使用自定义的Scan进行流式扫描（加盐的表对每个桶分别扫描后按原始行键归并，行过滤器看到的是加盐后的行键）
+     */
+    public HBaseRowScanner scanRows(String tableName, Scan scan, long rowLimit) {
         TableName hTableName = TableName.valueOf(tableName);
+        HBaseRowKeySalter rowKeySalter = rowKeySalters.get(tableName);
+        if(rowKeySalter != null && scan.isReversed()) {
+            throw new IllegalArgumentException("reversed scans are not supported on salted table " + tableName);
+        }
+        // 从打开到close为一次扫描，处理的行数为返回的行数
+        HBaseMetrics.Timer timer = startTimer(tableName, "scan");
+        Table table = null;
+        List<ResultScanner> resultScanners = new ArrayList<ResultScanner>();
         try {
-            Table table = connection.getTable(hTableName);
-            Scan scan = new Scan();
-            scan.setStartRow(Bytes.toBytes(startRow));
-            scan.setStopRow(Bytes.toBytes(stopRow));
-            ResultScanner resultScanner = table.getScanner(scan);
-
-            rowList = new ArrayList<Result>();
-            for(Result row : resultScanner) {
-                rowList.add(row);
+            table = connection.getTable(hTableName);
+            if(rowKeySalter == null) {
+                resultScanners.add(table.getScanner(scan));
+            } else {
+                for(Scan bucketScan : rowKeySalter.toBucketScans(scan)) {
+                    resultScanners.add(table.getScanner(bucketScan));
+                }
             }
+
+            return new HBaseRowScanner(table, resultScanners, rowKeySalter == null ? 0 : rowKeySalter.getPrefixLength(),
+                    rowLimit, timer);
         } catch (Exception e) {
+            timer.failure();
+            for(ResultScanner resultScanner : resultScanners) {
+                resultScanner.close();
+            }
             e.printStackTrace();
+            if(table != null) {
+                try {
+                    table.close();
+                } catch (IOException ioe) {
+                    ioe.printStackTrace();
+                }
+            }
         }
 
-        return rowList;
+        return null;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param scan 扫描条件（起止行键为空时扫描全表；不支持reversed扫描，抛出IllegalArgumentException）
+     * @param parallelism 同时扫描的Region数
+     * @param queueCapacity 合并结果队列的容量（行数）
+     * @param ordered 是否按行键顺序输出（为false时按到达顺序输出，吞吐量更高）
+     * @return 并行扫描结果(使用完后需要close；有Region扫描失败时该Region的行不会输出，遍历仍正常结束，
+     *         遍历结束后getFailedRegionCount()不为0表示结果不完整)，打开失败返回null
+     * @description 按Region拆分扫描范围并行扫描，用于全表导出、统计等需要读取大量数据的场景
+     *               （加盐的表按桶拆分后再按Region拆分，ordered为true时只保证每个桶内有序）
+     */
+    public HBaseParallelScanner scanRowsParallel(String tableName, Scan scan, int parallelism, int queueCapacity, boolean ordered) {
+        // 按Region拆分时假设起止行键升序，reversed扫描会跳过Region或者使用颠倒的边界
+        if(scan.isReversed()) {
+            throw new IllegalArgumentException("reversed scans are not supported by parallel scans");
+        }
+        HBaseRowKeySalter rowKeySalter = rowKeySalters.get(tableName);
+        HBaseMetrics.Timer timer = startTimer(tableName, "parallelScan");
+        try {
+            List<Scan> scans = rowKeySalter == null ? Collections.singletonList(scan) : rowKeySalter.toBucketScans(scan);
+
+            return new HBaseParallelScanner(connection, tableName, scans, parallelism, queueCapacity, ordered, timer);
+        } catch (Exception e) {
+            timer.failure();
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param startRow 起始行（包括，为null时从第一行开始）
+     * @param stopRow 结束行（不包括，为null时扫描到最后一行）
+     * @param caching 每次RPC返回的行数（小于等于0时使用hbase.client.scanner.caching配置）
+     * @param parallelism 同时扫描的Region数
+     * @param ordered 是否按行键顺序输出
+     * @return 并行扫描结果(使用完后需要close；有Region扫描失败时该Region的行不会输出，遍历仍正常结束，
+     *         遍历结束后getFailedRegionCount()不为0表示结果不完整)，打开失败返回null
+     * @description 根据行键按Region并行进行范围查询
+     */
+    public HBaseParallelScanner scanRowsParallel(String tableName, String startRow, String stopRow, int caching,
+                                                 int parallelism, boolean ordered) {
+        Scan scan = new Scan();
+        if(startRow != null) {
+            scan.withStartRow(Bytes.toBytes(startRow));
+        }
+        if(stopRow != null) {
+            scan.withStopRow(Bytes.toBytes(stopRow));
+        }
+        if(caching > 0) {
+            scan.setCaching(caching);
+        }
+
+        return scanRowsParallel(tableName, scan, parallelism, Math.max(caching, 1000), ordered);
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param query 查询条件（过滤器、返回的列以及行数限制）
+     * @return 流式扫描结果(使用完后需要close，遍历结束后isFailed为true时结果不完整)，打开失败返回null
+     * @description 使用组合查询条件进行流式扫描
+     */
+    public HBaseRowScanner scanRows(String tableName, HBaseQuery query) {
+        return scanRows(tableName, query.toScan(), query.getLimit());
     }
 
     /**
@@ -344,73 +942,154 @@ public class HBaseUtil {
      * @param tableName 表名
      * @param familyColumn 列族
      * @param qualifier 字段
-     * @return
-     * @description 使用各类过滤器扫描并获取HBase的各行（不需要固定rowKey）
+     * @return 扫描失败或者中途出错时返回null
+     * @description 使用过滤器扫描并获取HBase的各行（不需要固定rowKey），各类过滤器的用法见HBaseQuery
      */
     public List<Result> scanRowsWithFilter(String tableName, String familyColumn, String qualifier) {
-        List<Result> rowList = null;
+        // 行键前缀为rk（最外层为and时转换为扫描范围[rk, rl)，不需要PrefixFilter逐行过滤）
+        HBaseQuery query = HBaseQuery.and()
+                .rowPrefix("rk");
+        HBaseRowScanner rowScanner = scanRows(tableName, query);
 
-        TableName hTableName = TableName.valueOf(tableName);
+        if(rowScanner == null) {
+            return null;
+        }
+
+        List<Result> rowList = new ArrayList<Result>();
+        for(Result result : rowScanner) {
+            rowList.add(result);
+        }
+        rowScanner.close();
+
+        return rowScanner.isFailed() ? null : rowList;
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param startRow 起始行（包括，为null时从第一行开始）
+     * @param stopRow 结束行（不包括，为null时统计到最后一行）
+     * @param parallelism 同时扫描的Region数
+     * @return 行数，统计失败（包括有Region扫描失败）返回-1
+     * @description 按Region并行统计范围内的行数（每行只返回第一个Key且不返回值，不占用BlockCache）
+     */
+    public long countRows(String tableName, String startRow, String stopRow, int parallelism) {
+        Scan scan = createStatsScan(startRow, stopRow);
+        scan.setFilter(new FilterList(FilterList.Operator.MUST_PASS_ALL, new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+
+        HBaseRangeStats stats = collectStats(tableName, scan, parallelism, false, 1.0, "countRows");
+        if(stats == null || stats.getFailedRegionCount() > 0) {
+            return -1;
+        }
+
+        return stats.getRowCount();
+    }
+
+    /**
+     *
+     * @param tableName 表名
+     * @param startRow 起始行（包括，为null时从第一行开始）
+     * @param stopRow 结束行（不包括，为null时统计到最后一行）
+     * @param parallelism 同时扫描的Region数
+     * @param sampleRatio 抽样比例（0到1之间，1为统计全部行，小于1时按比例随机抽取行后放大估算）
+     * @return 统计结果（有Region扫描失败时为部分结果，见getFailedRegionCount），统计失败返回null
+     * @description 按Region并行统计范围内的行数、Cell数以及每个列族的字节数（只返回Key和值的长度，不返回值本身）
+     */
+    public HBaseRangeStats getRangeStats(String tableName, String startRow, String stopRow, int parallelism, double sampleRatio) {
+        if(sampleRatio <= 0 || sampleRatio > 1) {
+            throw new IllegalArgumentException("sampleRatio must be in (0, 1]");
+        }
+        Scan scan = createStatsScan(startRow, stopRow);
+        if(sampleRatio < 1.0) {
+            scan.setFilter(new FilterList(FilterList.Operator.MUST_PASS_ALL,
+                    new RandomRowFilter((float) sampleRatio), new KeyOnlyFilter(true)));
+        } else {
+            scan.setFilter(new KeyOnlyFilter(true));
+        }
+
+        return collectStats(tableName, scan, parallelism, true, sampleRatio, "rangeStats");
+    }
+
+    // 统计用的扫描：结果只在扫描线程中累加，每次RPC返回较多的行，并且不把扫描的数据块放入BlockCache
+    private Scan createStatsScan(String startRow, String stopRow) {
+        Scan scan = new Scan();
+        if(startRow != null) {
+            scan.withStartRow(Bytes.toBytes(startRow));
+        }
+        if(stopRow != null) {
+            scan.withStopRow(Bytes.toBytes(stopRow));
+        }
+        scan.setCaching(5000);
+        scan.setCacheBlocks(false);
+
+        return scan;
+    }
+
+    private HBaseRangeStats collectStats(String tableName, Scan scan, int parallelism, boolean countBytes,
+                                         double sampleRatio, String operation) {
+        HBaseRowKeySalter rowKeySalter = rowKeySalters.get(tableName);
+        HBaseMetrics.Timer timer = startTimer(tableName, operation);
         try {
-            Table table = connection.getTable(hTableName);
-            Scan scan = new Scan();
-
-            // FilterList可以添加多个Filter进行过滤
-            // FilterList filterList = new FilterList();
-
-            // 前缀过滤器----针对行键（过滤结果为满足条件的所有行的所有数据）
-            PrefixFilter prefixFilter = new PrefixFilter(Bytes.toBytes("rk"));
-
-            // 行过滤器----针对行键（过滤结果为满足条件的所有行的所有数据）
-            ByteArrayComparable binaryComparator = new BinaryComparator(Bytes.toBytes("rk_001"));
-            RowFilter rowFilter = new RowFilter(CompareOperator.LESS_OR_EQUAL, binaryComparator);
-            ByteArrayComparable substringComparator = new SubstringComparator("_00");
-            RowFilter rowFilter2 = new RowFilter(CompareOperator.EQUAL, substringComparator);
-
-            // 单值过滤器----针对字段值，完整匹配字节数组（过滤结果为满足条件的所有行的所有数据）
-            SingleColumnValueFilter singleColumnValueFilter = new SingleColumnValueFilter(Bytes.toBytes(familyColumn),
-                    Bytes.toBytes(qualifier), CompareOperator.EQUAL, Bytes.toBytes("Orange"));
-            // 单值过滤器----针对字段值，匹配正则表达式
-            ByteArrayComparable regexStringComparator = new RegexStringComparator("Orang.");
-            SingleColumnValueFilter singleColumnValueFilter2 = new SingleColumnValueFilter(Bytes.toBytes(familyColumn),
-                    Bytes.toBytes(qualifier), CompareOperator.EQUAL, regexStringComparator);
-            // 单值过滤器----针对字段值，匹配是否包含子串（大小写不敏感）
-            ByteArrayComparable substringComparator2 = new SubstringComparator("AN");
-            SingleColumnValueFilter singleColumnValueFilter3 = new SingleColumnValueFilter(Bytes.toBytes(familyColumn),
-                    Bytes.toBytes(qualifier), CompareOperator.EQUAL, substringComparator2);
-
-            // 键值对元数据过滤----familyColumn过滤，完整匹配字节数组（过滤结果为满足条件的所有行的对应列族数据）
-            ByteArrayComparable binaryComparator2 = new BinaryComparator(Bytes.toBytes("extra_info"));
-            FamilyFilter familyFilter = new FamilyFilter(CompareOperator.EQUAL, binaryComparator2);
-            // 键值对元数据过滤----familyColumn过滤，前缀匹配字节数组
-            ByteArrayComparable binaryPrefixComparator = new BinaryPrefixComparator(Bytes.toBytes("basic"));
-            FamilyFilter familyFilter2 = new FamilyFilter(CompareOperator.EQUAL, binaryPrefixComparator);
-            // 键值对元数据过滤-----qualifier过滤，完整匹配字节数组（过滤结果为满足条件的所有行的对应字段数据）
-            ByteArrayComparable binaryComparator3 = new BinaryComparator(Bytes.toBytes("name"));
-            QualifierFilter qualifierFilter = new QualifierFilter(CompareOperator.EQUAL, binaryComparator3);
-            // 键值对元数据过滤-----qualifier过滤，前缀匹配字节数组
-            ByteArrayComparable binaryPrefixComparator2 = new BinaryPrefixComparator(Bytes.toBytes("ev"));
-            QualifierFilter qualifierFilter2 = new QualifierFilter(CompareOperator.EQUAL, binaryPrefixComparator2);
-
-            // 基于列名(即Qualifier)前缀过滤数据的ColumnPrefixFilter（过滤结果为满足条件的所有行的对应字段数据）
-            ColumnPrefixFilter columnPrefixFilter = new ColumnPrefixFilter(Bytes.toBytes("na"));
-            // 基于多个列名(即Qualifier)前缀过滤数据的MultipleColumnPrefixFilter（多个列名前缀过滤条件的关系为“或”，过滤结果同上）
-            byte[][] prefixes = new byte[][] {Bytes.toBytes("na"), Bytes.toBytes("pr")};
-            MultipleColumnPrefixFilter multipleColumnPrefixFilter = new MultipleColumnPrefixFilter(prefixes);
-
-            scan.setFilter(prefixFilter);
-            ResultScanner resultScanner = table.getScanner(scan);
-
-            rowList = new ArrayList<Result>();
-            for(Result result : resultScanner) {
-                rowList.add(result);
+            List<Scan> scans = rowKeySalter == null ? Collections.singletonList(scan) : rowKeySalter.toBucketScans(scan);
+            HBaseRangeStats stats = HBaseRangeStats.collect(connection, tableName, scans, parallelism, countBytes, sampleRatio);
+            if(stats.getFailedRegionCount() > 0) {
+                timer.failure();
+            } else {
+                timer.success(stats.getSampledRowCount());
             }
-            table.close();
+
+            return stats;
         } catch (Exception e) {
+            timer.failure();
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * @description 关闭HBase连接（之前创建的HBaseBulkWriter、HBaseRowScanner等需要先关闭）
+     */
+    public void close() {
+        if(connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (IOException e) {
             e.printStackTrace();
         }
+    }
 
-        return rowList;
+    public HBaseRowCache getRowCache() {
+        return rowCache;
+    }
+    public HBaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    // 开始计时（未设置metrics时不统计）
+    private HBaseMetrics.Timer startTimer(String tableName, String operation) {
+        return metrics == null ? HBaseMetrics.Timer.NOOP : metrics.start(tableName, operation);
+    }
+
+    // 加盐的表对行键编码
+    private byte[] toRowBytes(String tableName, String rowKey) {
+        HBaseRowKeySalter rowKeySalter = rowKeySalters.get(tableName);
+        return rowKeySalter == null ? Bytes.toBytes(rowKey) : rowKeySalter.encodeBytes(rowKey);
+    }
+
+    // 加盐的表去掉行键前缀
+    private String fromRowBytes(String tableName, byte[] row) {
+        HBaseRowKeySalter rowKeySalter = rowKeySalters.get(tableName);
+        return rowKeySalter == null ? Bytes.toString(row) : rowKeySalter.decode(row);
+    }
+
+    // 写入或者删除后使该行的读缓存失效
+    private void invalidateRow(String tableName, String rowKey) {
+        if(rowCache != null) {
+            rowCache.invalidate(tableName, rowKey);
+        }
     }
 
     /**
@@ -427,6 +1106,12 @@ public class HBaseUtil {
 //        String[] familyColumns = {"basic_info", "extra_info"};
 //        hBaseUtil.createTable("test_order", familyColumns);
 
+        // 创建预分区的HBase表（按行键范围均匀分为16个Region，或者按行键样本的分位数分区）
+//        hBaseUtil.createTable("test_order", familyColumns, HBaseSplitKeys.uniform("rk_0000000", "rk_9999999", 16));
+//        hBaseUtil.createTable("test_order", familyColumns, HBaseSplitKeys.fromSample(sampleRowKeys, 16));
+        // 创建行键加盐的HBase表（16个桶，每个桶一个Region），之后的插入、查询、扫描仍然使用原始行键
+//        hBaseUtil.createSaltedTable("test_order", familyColumns, new HBaseRowKeySalter(16));
+
         // 删除HBase表
 //        hBaseUtil.dropTable("test_order");
 
@@ -436,9 +1121,24 @@ public class HBaseUtil {
 //        String[] qualifiers = {"name", "weight", "price"};
 //        String[] values = {"Orange", "1.5", "6"};
 //        hBaseUtil.insertCells("test_order", "rk_002", "basic_info", qualifiers, values);
+        // 批量写入（4MB写缓冲区，每秒至少刷新一次）
+//        HBaseBulkWriter bulkWriter = hBaseUtil.createBulkWriter("test_order", 4 * 1024 * 1024, 1000);
+//        for(int i = 0; i < 1000000; i++) {
+//            bulkWriter.insertCell(String.format("rk_%07d", i), "basic_info", "name", "Orange");
+//        }
+//        bulkWriter.close();
+//        System.out.println(bulkWriter);
+        // 导入HFile（例如mapreduce.WordCountHFileRunner的输出）
+//        hBaseUtil.bulkLoadHFiles("/wordcount/hfile", "test_order");
 
         // 删除一个或者多个Cell
 //        hBaseUtil.deleteCell("test_order", "rk_002", "basic_info", null);
+        // 批量删除：先只统计行键前缀为rk_2026的行数，再实际删除；按条件删除name为Orange的行（每批1000行）
+//        System.out.println(hBaseUtil.deleteRowsWithPrefix("test_order", "rk_2026", 8, true));
+//        System.out.println(hBaseUtil.deleteRowsWithPrefix("test_order", "rk_2026", 8, false));
+//        HBaseRangeDeleter rangeDeleter = hBaseUtil.deleteRows("test_order",
+//                HBaseQuery.and().valueEquals("basic_info", "name", "Orange"),
+//                rowKey -> rowKey.endsWith("0"), 8, 1000, false, System.out::println);
 
         // 获取Cell值
 //        System.out.println(hBaseUtil.getCellValue("test_order", "rk_002", "basic_info", "weight"));
@@ -446,11 +1146,75 @@ public class HBaseUtil {
 //        System.out.println(hBaseUtil.getFamilyColumnValue("test_order", "rk_002", "basic_info"));
         // 获取一行中Cell值
 //        System.out.println(hBaseUtil.getRowValue("test_order", "rk_002"));
+        // 带有读缓存的查询（最多缓存10万行，30秒过期）
+//        HBaseUtil cachedHBaseUtil = new HBaseUtil(zksStr, new HBaseRowCache(100000, 30, TimeUnit.SECONDS));
+//        for(int i = 0; i < 1000; i++) {
+//            cachedHBaseUtil.getCellValue("test_order", "rk_002", "basic_info", "weight");
+//        }
+//        System.out.println(cachedHBaseUtil.getRowCache());
+        // 统计每个表每种操作的次数、失败次数和延迟分布（注册到JMX，并且每分钟输出一次）
+//        HBaseMetrics metrics = new HBaseMetrics(true);
+//        metrics.startReporter(1, TimeUnit.MINUTES);
+//        HBaseUtil measuredHBaseUtil = new HBaseUtil(zksStr, null, metrics);
+//        measuredHBaseUtil.getRowValue("test_order", "rk_002");
+//        System.out.println(metrics.snapshot());
+        // 不创建中间对象逐个访问Cell（例如累加十进制文本格式的价格）
+//        final byte[] price = Bytes.toBytes("price");
+//        final long[] total = new long[1];
+//        HBaseRowScanner priceScanner = hBaseUtil.scanRows("test_order", null, null, 1000, 0, 0, 0);
+//        HBaseResultMapper.visit(priceScanner, cell -> {
+//            if(cell.qualifierEquals(price)) {
+//                total[0] += cell.parseValueLong();
+//            }
+//            return true;
+//        });
+//        priceScanner.close();
+//        System.out.println(total[0]);
+        // 批量获取多行（每1000行一次multi-get，4个线程并发）
+//        List<String> rowKeys = new ArrayList<String>();
+//        for(int i = 0; i < 10000; i++) {
+//            rowKeys.add(String.format("rk_%07d", i));
+//        }
+//        System.out.println(hBaseUtil.getRows("test_order", rowKeys, "basic_info", null, 1000, 4).size());
+//        System.out.println(hBaseUtil.getCellValues("test_order", rowKeys, "basic_info", "name"));
 
         // 根据行键进行范围查询
 //        System.out.println(hBaseUtil.scanRowsWithRange("test_order", "rk_001", "rk_003"));
+        // 流式范围查询（每次RPC返回500行，最多1万行）
+//        HBaseRowScanner rowScanner = hBaseUtil.scanRows("test_order", "rk_0000000", "rk_1000000", 500, 0, 0, 10000);
+//        for(Result row : rowScanner) {
+//            System.out.println(Bytes.toString(row.getRow()));
+//        }
+//        rowScanner.close();
+//        try (Stream<Result> rows = hBaseUtil.scanRows("test_order", null, null, 500, 0, 0, 0).stream()) {
+//            System.out.println(rows.filter(row -> row.containsColumn(Bytes.toBytes("basic_info"), Bytes.toBytes("name"))).count());
+//        }
+        // 按Region并行扫描全表（8个Region同时扫描，不要求顺序）
+//        HBaseParallelScanner parallelScanner = hBaseUtil.scanRowsParallel("test_order", null, null, 1000, 8, false);
+//        for(Result row : parallelScanner) {
+//            System.out.println(Bytes.toString(row.getRow()));
+//        }
+//        parallelScanner.close();
+//        System.out.println(parallelScanner);
+        // 统计行数以及每个列族的字节数（按Region并行，8个Region同时扫描；字节数按1%的行抽样估算）
+//        System.out.println(hBaseUtil.countRows("test_order", null, null, 8));
+//        System.out.println(hBaseUtil.getRangeStats("test_order", "rk_000", "rk_500", 8, 0.01));
 
         // 过滤查询
 //        System.out.println(hBaseUtil.scanRowsWithFilter("test_order", "basic_info", "name"));
+        // 组合查询：行键前缀为rk，并且name为Orange或者price大于等于5（十进制文本按字节比较），只返回basic_info列族
+//        HBaseQuery query = HBaseQuery.and()
+//                .rowPrefix("rk")
+//                .where(HBaseQuery.or()
+//                        .valueEquals("basic_info", "name", "Orange")
+//                        .valueCompare("basic_info", "price", CompareOperator.GREATER_OR_EQUAL, Bytes.toBytes("5")))
+//                .addFamily("basic_info")
+//                .caching(500)
+//                .limit(100);
+//        HBaseRowScanner queryScanner = hBaseUtil.scanRows("test_order", query);
+//        for(Result row : queryScanner) {
+//            System.out.println(row);
+//        }
+//        queryScanner.close();
     }
 }
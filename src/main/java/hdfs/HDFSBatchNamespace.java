@@ -0,0 +1,206 @@
+package hdfs;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @description 异步批量命名空间操作（mkdir、delete、rename）：所有操作共用同一个HDFS客户端，在固定大小的线程池中并发执行，
+ *               每个操作返回一个CompletableFuture，其中包含该操作是否成功以及失败时的异常（不再像HDFSUtil一样只打印异常）
+ *               同一批中的操作并发执行、顺序不确定，因此不能互相依赖（例如先mkdir再rename同一路径），有依赖的操作需要分批提交
+ */
+public class HDFSBatchNamespace {
+
+    // 共用的HDFS客户端（DistributedFileSystem是线程安全的，并发的RPC会复用同一个连接）
+    private final FileSystem hdfs;
+    // 路径元数据缓存（可以为null），操作完成后使相关路径失效
+    private final HDFSMetadataCache metadataCache;
+    private final ExecutorService executorService;
+
+    public HDFSBatchNamespace(FileSystem hdfs, int concurrency) {
+        this(hdfs, concurrency, null);
+    }
+
+    /**
+     *
+     * @param hdfs 共用的HDFS客户端（由调用方负责关闭）
+     * @param concurrency 同时执行的最大操作数
+     * @param metadataCache 路径元数据缓存（可以为null）
+     */
+    public HDFSBatchNamespace(FileSystem hdfs, int concurrency, HDFSMetadataCache metadataCache) {
+        if(concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        this.hdfs = hdfs;
+        this.metadataCache = metadataCache;
+        this.executorService = Executors.newFixedThreadPool(concurrency);
+    }
+
+    /**
+     *
+     * @param operations 命名空间操作列表（并发执行，相互之间不能有依赖）
+     * @return 与操作列表一一对应的结果（操作失败时future仍然正常完成，通过OperationResult.isSuccess判断）
+     * @description 异步提交一批操作
+     */
+    public List<CompletableFuture<OperationResult>> submit(List<NamespaceOperation> operations) {
+        List<CompletableFuture<OperationResult>> futures = new ArrayList<CompletableFuture<OperationResult>>(operations.size());
+        for(NamespaceOperation operation : operations) {
+            futures.add(CompletableFuture.supplyAsync(() -> execute(operation), executorService));
+        }
+
+        return futures;
+    }
+
+    /**
+     *
+     * @param operations 命名空间操作列表（并发执行，相互之间不能有依赖）
+     * @return 所有操作完成后得到与操作列表一一对应的结果列表
+     * @description 异步提交一批操作，并在全部完成后汇总结果
+     */
+    public CompletableFuture<List<OperationResult>> submitAll(List<NamespaceOperation> operations) {
+        List<CompletableFuture<OperationResult>> futures = submit(operations);
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenApply(ignored -> {
+                    List<OperationResult> results = new ArrayList<OperationResult>(futures.size());
+                    for(CompletableFuture<OperationResult> future : futures) {
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+    }
+
+    private OperationResult execute(NamespaceOperation operation) {
+        long startTime = System.nanoTime();
+        try {
+            boolean success;
+            switch (operation.type) {
+                case MKDIR:
+                    success = hdfs.mkdirs(operation.path);
+                    break;
+                case DELETE:
+                    success = hdfs.delete(operation.path, operation.recursive);
+                    break;
+                case RENAME:
+                    success = hdfs.rename(operation.path, operation.targetPath);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation type: " + operation.type);
+            }
+
+            return new OperationResult(operation, success, null, System.nanoTime() - startTime);
+        } catch (IOException e) {
+            return new OperationResult(operation, false, e, System.nanoTime() - startTime);
+        } catch (RuntimeException e) {
+            return new OperationResult(operation, false, e, System.nanoTime() - startTime);
+        } finally {
+            if(metadataCache != null) {
+                metadataCache.invalidate(hdfs.makeQualified(operation.path).toString());
+                if(operation.targetPath != null) {
+                    metadataCache.invalidate(hdfs.makeQualified(operation.targetPath).toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * @description 停止接收新的操作，已提交的操作会继续执行完（不会关闭HDFS客户端）
+     */
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    /**
+     * @description 操作类型
+     */
+    public enum OperationType {
+        MKDIR, DELETE, RENAME
+    }
+
+    /**
+     * @description 单个命名空间操作
+     */
+    public static class NamespaceOperation {
+        private final OperationType type;
+        private final Path path;
+        private final Path targetPath;
+        private final boolean recursive;
+
+        private NamespaceOperation(OperationType type, Path path, Path targetPath, boolean recursive) {
+            this.type = type;
+            this.path = path;
+            this.targetPath = targetPath;
+            this.recursive = recursive;
+        }
+
+        // 递归创建文件夹
+        public static NamespaceOperation mkdir(String dirPath) {
+            return new NamespaceOperation(OperationType.MKDIR, new Path(dirPath), null, false);
+        }
+
+        public static NamespaceOperation delete(String pathStr, boolean recursive) {
+            return new NamespaceOperation(OperationType.DELETE, new Path(pathStr), null, recursive);
+        }
+
+        public static NamespaceOperation rename(String oldPathStr, String newPathStr) {
+            return new NamespaceOperation(OperationType.RENAME, new Path(oldPathStr), new Path(newPathStr), false);
+        }
+
+        public OperationType getType() {
+            return type;
+        }
+        public Path getPath() {
+            return path;
+        }
+        public Path getTargetPath() {
+            return targetPath;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + path + (targetPath == null ? "" : " -> " + targetPath);
+        }
+    }
+
+    /**
+     * @description 单个操作的执行结果
+     */
+    public static class OperationResult {
+        private final NamespaceOperation operation;
+        private final boolean success;
+        private final Throwable error;
+        private final long elapsedNanos;
+
+        OperationResult(NamespaceOperation operation, boolean success, Throwable error, long elapsedNanos) {
+            this.operation = operation;
+            this.success = success;
+            this.error = error;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public NamespaceOperation getOperation() {
+            return operation;
+        }
+        // FileSystem返回true并且没有抛出异常时为成功（例如删除不存在的路径返回false）
+        public boolean isSuccess() {
+            return success;
+        }
+        public Throwable getError() {
+            return error;
+        }
+        public long getElapsedMillis() {
+            return elapsedNanos / 1000000L;
+        }
+
+        @Override
+        public String toString() {
+            return operation + ": " + (success ? "success" : "failed" + (error == null ? "" : " (" + error + ")"));
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package hdfs;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * @description 文件夹批量上传/下载：遍历本地或HDFS文件夹，在固定大小的线程池中并发调用HDFSUtil的uploadFile/downloadFile，
+ *               按文件大小从大到小提交任务（避免大文件最后才开始导致线程池空转），单个文件失败时重试，并定期输出传输进度
+ */
+public class HDFSBulkTransfer {
+
+    // 共用客户端的HDFS操作对象（批量传输期间不会关闭客户端）
+    private final HDFSUtil hdfsUtil;
+    private final String uriStr;
+    private final String user;
+    // 并发传输线程数
+    private final int threads;
+    // 单个文件失败后的最大重试次数
+    private final int maxRetries;
+    // 进度输出间隔（毫秒，小于等于0表示不输出）
+    private final long progressIntervalMillis;
+
+    /**
+     *
+     * @param clientManager HDFS客户端管理对象
+     * @param uriStr HDFS URI
+     * @param user 用户名
+     * @param threads 并发传输线程数
+     * @param maxRetries 单个文件失败后的最大重试次数
+     * @param progressIntervalMillis 进度输出间隔（毫秒，小于等于0表示不输出）
+     */
+    public HDFSBulkTransfer(HDFSClientManager clientManager, String uriStr, String user,
+                            int threads, int maxRetries, long progressIntervalMillis) {
+        if(clientManager == null) {
+            throw new IllegalArgumentException("clientManager is required so that the FileSystem is shared by all transfers");
+        }
+        if(threads <= 0 || maxRetries < 0) {
+            throw new IllegalArgumentException("threads must be positive and maxRetries must not be negative");
+        }
+        this.hdfsUtil = new HDFSUtil(clientManager);
+        this.uriStr = uriStr;
+        this.user = user;
+        this.threads = threads;
+        this.maxRetries = maxRetries;
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    /**
+     *
+     * @param localDirPath 本地文件夹路径
+     * @param hdfsDirPath HDFS目标文件夹路径（保持相对路径结构，存在同名文件会覆盖）
+     * @return 传输汇总信息
+     * @throws IOException 遍历本地文件夹失败
+     * @description 批量上传本地文件夹中的所有文件
+     */
+    public TransferProgress uploadDir(String localDirPath, String hdfsDirPath) throws IOException {
+        java.nio.file.Path localRoot = Paths.get(localDirPath);
+        List<TransferTask> tasks = new ArrayList<TransferTask>();
+        Stream<java.nio.file.Path> localFiles = Files.walk(localRoot);
+        try {
+            for(java.nio.file.Path localFile : (Iterable<java.nio.file.Path>) localFiles::iterator) {
+                if(Files.isRegularFile(localFile)) {
+                    String relativePath = localRoot.relativize(localFile).toString().replace(File.separatorChar, '/');
+                    tasks.add(new TransferTask(true, localFile.toString(), new Path(hdfsDirPath, relativePath).toString(),
+                            Files.size(localFile)));
+                }
+            }
+        } finally {
+            localFiles.close();
+        }
+
+        return transfer(tasks);
+    }
+
+    /**
+     *
+     * @param localDirPath 本地文件夹路径
+     * @param hdfsDirPath HDFS目标文件夹路径（保持相对路径结构，存在同名文件会覆盖）
+     * @param relativePaths 需要上传的文件相对路径（以/分隔）
+     * @return 传输汇总信息（失败文件列表中为本地文件路径）
+     * @throws IOException 读取本地文件大小失败
+     * @description 批量上传本地文件夹中的指定文件
+     */
+    public TransferProgress uploadFiles(String localDirPath, String hdfsDirPath, Collection<String> relativePaths) throws IOException {
+        java.nio.file.Path localRoot = Paths.get(localDirPath);
+        List<TransferTask> tasks = new ArrayList<TransferTask>(relativePaths.size());
+        for(String relativePath : relativePaths) {
+            java.nio.file.Path localFile = localRoot.resolve(relativePath);
+            tasks.add(new TransferTask(true, localFile.toString(), new Path(hdfsDirPath, relativePath).toString(),
+                    Files.size(localFile)));
+        }
+
+        return transfer(tasks);
+    }
+
+    /**
+     *
+     * @param hdfsDirPath HDFS文件夹路径
+     * @param localDirPath 本地目标文件夹路径（保持相对路径结构）
+     * @return 传输汇总信息
+     * @throws IOException 遍历HDFS文件夹失败
+     * @description 批量下载HDFS文件夹中的所有文件
+     */
+    public TransferProgress downloadDir(String hdfsDirPath, String localDirPath) throws IOException {
+        FileSystem hdfs = hdfsUtil.getHadoopFileSystem(uriStr, user);
+        if(hdfs == null) {
+            throw new IOException("Failed to get FileSystem for " + uriStr);
+        }
+
+        String hdfsRoot = hdfs.getFileStatus(new Path(hdfsDirPath)).getPath().toUri().getPath();
+        List<TransferTask> tasks = new ArrayList<TransferTask>();
+        // listFiles递归获取文件时由NameNode分批返回，不需要逐个文件夹调用listStatus
+        RemoteIterator<LocatedFileStatus> fileIterator = hdfs.listFiles(new Path(hdfsDirPath), true);
+        while(fileIterator.hasNext()) {
+            LocatedFileStatus fileStatus = fileIterator.next();
+            String hdfsFile = fileStatus.getPath().toUri().getPath();
+            String relativePath = hdfsFile.length() > hdfsRoot.length() ? hdfsFile.substring(hdfsRoot.length() + 1) : fileStatus.getPath().getName();
+            tasks.add(new TransferTask(false, hdfsFile, new File(localDirPath, relativePath).getPath(), fileStatus.getLen()));
+        }
+
+        return transfer(tasks);
+    }
+
+    private TransferProgress transfer(List<TransferTask> tasks) {
+        // 大文件优先提交
+        Collections.sort(tasks, new Comparator<TransferTask>() {
+            public int compare(TransferTask o1, TransferTask o2) {
+                return Long.compare(o2.size, o1.size);
+            }
+        });
+
+        final TransferProgress progress = new TransferProgress(tasks);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService progressReporter = null;
+        if(progressIntervalMillis > 0) {
+            progressReporter = Executors.newSingleThreadScheduledExecutor();
+            progressReporter.scheduleAtFixedRate(new Runnable() {
+                public void run() {
+                    System.out.println(progress);
+                }
+            }, progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            for(final TransferTask task : tasks) {
+                executorService.submit(new Runnable() {
+                    public void run() {
+                        transferWithRetry(task, progress);
+                    }
+                });
+            }
+            executorService.shutdown();
+            while(!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                // 等待所有文件传输完成
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            if(progressReporter != null) {
+                progressReporter.shutdownNow();
+            }
+            progress.finish();
+        }
+
+        return progress;
+    }
+
+    private void transferWithRetry(TransferTask task, TransferProgress progress) {
+        for(int attempt = 0; attempt <= maxRetries; attempt++) {
+            if(attempt > 0) {
+                progress.retries.incrementAndGet();
+                try {
+                    // 线性退避，避免在NameNode或DataNode短暂故障时连续重试
+                    Thread.sleep(500L * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            FileSystem hdfs = hdfsUtil.getHadoopFileSystem(uriStr, user);
+            boolean result = hdfs != null && (task.upload
+                    ? hdfsUtil.uploadFile(hdfs, task.fromPath, task.toPath)
+                    : hdfsUtil.downloadFile(hdfs, task.fromPath, task.toPath));
+            if(result) {
+                progress.doneFiles.incrementAndGet();
+                progress.doneBytes.addAndGet(task.size);
+                return;
+            }
+        }
+
+        progress.failedFiles.add(task.fromPath);
+    }
+
+    /**
+     * @description 单个文件的传输任务
+     */
+    private static class TransferTask {
+        private final boolean upload;
+        private final String fromPath;
+        private final String toPath;
+        private final long size;
+
+        TransferTask(boolean upload, String fromPath, String toPath, long size) {
+            this.upload = upload;
+            this.fromPath = fromPath;
+            this.toPath = toPath;
+            this.size = size;
+        }
+    }
+
+    /**
+     * @description 传输进度（传输过程中定期输出，传输结束后作为汇总信息返回）
+     */
+    public static class TransferProgress {
+        private final long totalFiles;
+        private final long totalBytes;
+        private final AtomicLong doneFiles = new AtomicLong();
+        private final AtomicLong doneBytes = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final Queue<String> failedFiles = new ConcurrentLinkedQueue<String>();
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos = 0;
+
+        TransferProgress(List<TransferTask> tasks) {
+            long bytes = 0;
+            for(TransferTask task : tasks) {
+                bytes += task.size;
+            }
+            this.totalFiles = tasks.size();
+            this.totalBytes = bytes;
+        }
+
+        void finish() {
+            endNanos = System.nanoTime();
+        }
+
+        public long getTotalFiles() {
+            return totalFiles;
+        }
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+        public long getDoneFiles() {
+            return doneFiles.get();
+        }
+        public long getDoneBytes() {
+            return doneBytes.get();
+        }
+        public long getRetries() {
+            return retries.get();
+        }
+        public List<String> getFailedFiles() {
+            return new ArrayList<String>(failedFiles);
+        }
+        public long getElapsedMillis() {
+            return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1000000L;
+        }
+        public double getMegabytesPerSecond() {
+            long elapsedMillis = getElapsedMillis();
+            return elapsedMillis == 0 ? 0.0 : doneBytes.get() / 1024.0 / 1024.0 * 1000 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return (endNanos == 0 ? "progress: " : "summary: ") +
+                    "files=" + getDoneFiles() + "/" + totalFiles +
+                    ", bytes=" + getDoneBytes() + "/" + totalBytes +
+                    ", failed=" + failedFiles.size() +
+                    ", retries=" + getRetries() +
+                    ", elapsedMillis=" + getElapsedMillis() +
+                    ", MB/s=" + String.format("%.1f", getMegabytesPerSecond());
+        }
+    }
+}
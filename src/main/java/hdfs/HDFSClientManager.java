@@ -0,0 +1,120 @@
+package hdfs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @description HDFS客户端管理类：按照URI和用户名缓存FileSystem对象并在多次操作之间复用，只在shutdown时统一关闭
+ *               （FileSystem.get自带的缓存以UGI为键，而每次传入用户名都会生成新的UGI，因此无法命中，并且任意一次close都会使缓存失效）
+ */
+public class HDFSClientManager {
+
+    // 所有客户端共用同一个配置对象，避免每次重新加载配置文件
+    private final Configuration configuration;
+    // 客户端缓存（键为URI#用户名）
+    private final Map<String, FileSystem> fileSystemMap = new ConcurrentHashMap<String, FileSystem>();
+
+    // 新建客户端次数
+    private final AtomicLong createdCount = new AtomicLong();
+    // 复用客户端次数
+    private final AtomicLong reusedCount = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    public HDFSClientManager() {
+        this(new Configuration());
+    }
+
+    public HDFSClientManager(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     *
+     * @param uriStr HDFS URI
+     * @param user 用户名
+     * @return
+     * @throws IOException
+     * @description 获取缓存的HDFS客户端，不存在时新建（通过FileSystem.newInstance创建，不受FileSystem全局缓存的影响）
+     */
+    public FileSystem getFileSystem(String uriStr, String user) throws IOException {
+        String key = uriStr + "#" + user;
+        FileSystem hdfs = fileSystemMap.get(key);
+        if(hdfs != null) {
+            reusedCount.incrementAndGet();
+            return hdfs;
+        }
+
+        synchronized (this) {
+            if(closed) {
+                throw new IllegalStateException("HDFSClientManager has been shut down");
+            }
+            hdfs = fileSystemMap.get(key);
+            if(hdfs != null) {
+                reusedCount.incrementAndGet();
+                return hdfs;
+            }
+            try {
+                hdfs = FileSystem.newInstance(new URI(uriStr), configuration, user);
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid HDFS URI: " + uriStr, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while creating FileSystem for " + uriStr, e);
+            }
+            fileSystemMap.put(key, hdfs);
+            createdCount.incrementAndGet();
+        }
+
+        return hdfs;
+    }
+
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @return
+     * @description 判断客户端是否由当前管理类维护（被管理的客户端不能由调用方关闭）
+     */
+    public boolean isManaged(FileSystem hdfs) {
+        return hdfs != null && fileSystemMap.containsValue(hdfs);
+    }
+
+    /**
+     * @description 关闭所有缓存的客户端，关闭后不能再获取客户端
+     */
+    public synchronized void shutdown() {
+        closed = true;
+        for(FileSystem hdfs : fileSystemMap.values()) {
+            try {
+                hdfs.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        fileSystemMap.clear();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+    public long getReusedCount() {
+        return reusedCount.get();
+    }
+    public int getCachedCount() {
+        return fileSystemMap.size();
+    }
+
+    @Override
+    public String toString() {
+        return "createdCount=" + getCreatedCount() +
+                ", reusedCount=" + getReusedCount() +
+                ", cachedCount=" + getCachedCount();
+    }
+}
@@ -0,0 +1,296 @@
+package hdfs;
+
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * @description 本地文件夹到HDFS的增量同步：在本地清单文件中记录上次同步时各文件的大小和修改时间（可选记录HDFS checksum），
+ *               每次同步只上传新增或者发生变化的文件，并可选地删除HDFS上已经在本地删除的文件
+ */
+public class HDFSIncrementalSync {
+
+    private final HDFSUtil hdfsUtil;
+    private final HDFSBulkTransfer bulkTransfer;
+    private final String uriStr;
+    private final String user;
+
+    /**
+     *
+     * @param clientManager HDFS客户端管理对象
+     * @param uriStr HDFS URI
+     * @param user 用户名
+     * @param threads 并发上传线程数
+     * @param maxRetries 单个文件失败后的最大重试次数
+     */
+    public HDFSIncrementalSync(HDFSClientManager clientManager, String uriStr, String user, int threads, int maxRetries) {
+        this.hdfsUtil = new HDFSUtil(clientManager);
+        this.bulkTransfer = new HDFSBulkTransfer(clientManager, uriStr, user, threads, maxRetries, 0);
+        this.uriStr = uriStr;
+        this.user = user;
+    }
+
+    /**
+     *
+     * @param localDirPath 本地文件夹路径
+     * @param hdfsDirPath HDFS目标文件夹路径
+     * @param manifestPath 本地清单文件路径（不存在时视为首次同步，全部上传）
+     * @param verifyChecksum 大小和修改时间都未变化时，是否再比较HDFS文件当前的checksum与清单中记录的checksum（用于发现HDFS端被修改或删除的文件）
+     * @param propagateDeletes 是否删除HDFS上已经在本地删除的文件
+     * @return 同步汇总信息
+     * @throws IOException 读写清单文件或者遍历本地文件夹失败
+     * @description 执行一次增量同步，上传成功的文件才会更新到清单中，失败的文件在下次同步时重新上传
+     */
+    public SyncResult sync(String localDirPath, String hdfsDirPath, String manifestPath,
+                           boolean verifyChecksum, boolean propagateDeletes) throws IOException {
+        long startTime = System.nanoTime();
+        SyncResult syncResult = new SyncResult();
+
+        Map<String, ManifestEntry> manifest = readManifest(manifestPath);
+        Map<String, ManifestEntry> localFiles = scanLocalDir(localDirPath);
+        syncResult.scannedFiles = localFiles.size();
+
+        FileSystem hdfs = hdfsUtil.getHadoopFileSystem(uriStr, user);
+        if(hdfs == null) {
+            throw new IOException("Failed to get FileSystem for " + uriStr);
+        }
+
+        // 1.找出新增或者变化的文件
+        List<String> changedFiles = new ArrayList<String>();
+        for(Map.Entry<String, ManifestEntry> localFile : localFiles.entrySet()) {
+            ManifestEntry synced = manifest.get(localFile.getKey());
+            if(synced == null || synced.size != localFile.getValue().size || synced.modificationTime != localFile.getValue().modificationTime) {
+                changedFiles.add(localFile.getKey());
+            } else if(verifyChecksum && !checksumMatches(hdfs, new Path(hdfsDirPath, localFile.getKey()), synced.checksum)) {
+                changedFiles.add(localFile.getKey());
+            } else {
+                syncResult.unchangedFiles++;
+            }
+        }
+
+        // 2.上传变化的文件，只有上传成功的文件才写入清单
+        if(!changedFiles.isEmpty()) {
+            HDFSBulkTransfer.TransferProgress progress = bulkTransfer.uploadFiles(localDirPath, hdfsDirPath, changedFiles);
+            Set<String> failedFiles = new HashSet<String>(progress.getFailedFiles());
+            for(String relativePath : changedFiles) {
+                if(failedFiles.contains(Paths.get(localDirPath).resolve(relativePath).toString())) {
+                    syncResult.failedFiles.add(relativePath);
+                    continue;
+                }
+                ManifestEntry entry = localFiles.get(relativePath);
+                if(verifyChecksum) {
+                    entry.checksum = getChecksum(hdfs, new Path(hdfsDirPath, relativePath));
+                }
+                manifest.put(relativePath, entry);
+                syncResult.transferredFiles++;
+                syncResult.transferredBytes += entry.size;
+            }
+        }
+
+        // 3.处理本地已经删除的文件
+        for(String relativePath : new ArrayList<String>(manifest.keySet())) {
+            if(!localFiles.containsKey(relativePath)) {
+                if(propagateDeletes && !deleteHdfsFile(hdfs, new Path(hdfsDirPath, relativePath))) {
+                    // 删除失败时保留清单记录，下次同步继续尝试删除
+                    syncResult.failedFiles.add(relativePath);
+                    continue;
+                }
+                manifest.remove(relativePath);
+                if(propagateDeletes) {
+                    syncResult.deletedFiles++;
+                }
+            }
+        }
+
+        writeManifest(manifestPath, manifest);
+        syncResult.elapsedNanos = System.nanoTime() - startTime;
+
+        return syncResult;
+    }
+
+    // FileSystem.delete在路径不存在时返回false，此时HDFS上的文件已经不存在，同样视为删除成功
+    private boolean deleteHdfsFile(FileSystem hdfs, Path hdfsPath) {
+        if(hdfsUtil.deletePath(hdfs, hdfsPath.toString())) {
+            return true;
+        }
+        try {
+            return !hdfs.exists(hdfsPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    private Map<String, ManifestEntry> scanLocalDir(String localDirPath) throws IOException {
+        java.nio.file.Path localRoot = Paths.get(localDirPath);
+        Map<String, ManifestEntry> localFiles = new HashMap<String, ManifestEntry>();
+        Stream<java.nio.file.Path> paths = Files.walk(localRoot);
+        try {
+            for(java.nio.file.Path localFile : (Iterable<java.nio.file.Path>) paths::iterator) {
+                if(Files.isRegularFile(localFile)) {
+                    String relativePath = localRoot.relativize(localFile).toString().replace(File.separatorChar, '/');
+                    localFiles.put(relativePath, new ManifestEntry(Files.size(localFile),
+                            Files.getLastModifiedTime(localFile).toMillis(), null));
+                }
+            }
+        } finally {
+            paths.close();
+        }
+
+        return localFiles;
+    }
+
+    private boolean checksumMatches(FileSystem hdfs, Path hdfsPath, String syncedChecksum) {
+        if(syncedChecksum == null) {
+            // 清单中没有记录checksum（例如上次同步未开启校验），只能依据大小和修改时间判断
+            return true;
+        }
+        return syncedChecksum.equals(getChecksum(hdfs, hdfsPath));
+    }
+
+    private String getChecksum(FileSystem hdfs, Path hdfsPath) {
+        try {
+            FileChecksum fileChecksum = hdfs.getFileChecksum(hdfsPath);
+            return fileChecksum == null ? null : fileChecksum.getAlgorithmName() + ":" + StringUtils.byteToHexString(fileChecksum.getBytes());
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @description 清单文件格式：每行一个文件，字段依次为 大小\t修改时间\tchecksum(无则为-)\t相对路径
+     *               （相对路径中的\t、换行等字符转义后写入，见TabSeparatedFields）
+     */
+    private Map<String, ManifestEntry> readManifest(String manifestPath) throws IOException {
+        Map<String, ManifestEntry> manifest = new HashMap<String, ManifestEntry>();
+        java.nio.file.Path path = Paths.get(manifestPath);
+        if(!Files.exists(path)) {
+            return manifest;
+        }
+
+        BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        try {
+            String line;
+            while((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", 4);
+                if(fields.length != 4) {
+                    continue;
+                }
+                manifest.put(TabSeparatedFields.unescape(fields[3]), new ManifestEntry(Long.parseLong(fields[0]),
+                        Long.parseLong(fields[1]), "-".equals(fields[2]) ? null : fields[2]));
+            }
+        } finally {
+            reader.close();
+        }
+
+        return manifest;
+    }
+
+    /**
+     * @description 先写临时文件再替换，避免同步过程中断导致清单文件损坏
+     */
+    private void writeManifest(String manifestPath, Map<String, ManifestEntry> manifest) throws IOException {
+        java.nio.file.Path path = Paths.get(manifestPath).toAbsolutePath();
+        if(path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        java.nio.file.Path tmpPath = Paths.get(path.toString() + ".tmp");
+        BufferedWriter writer = Files.newBufferedWriter(tmpPath, StandardCharsets.UTF_8);
+        try {
+            for(Map.Entry<String, ManifestEntry> entry : new TreeMap<String, ManifestEntry>(manifest).entrySet()) {
+                ManifestEntry manifestEntry = entry.getValue();
+                writer.write(manifestEntry.size + "\t" + manifestEntry.modificationTime + "\t"
+                        + (manifestEntry.checksum == null ? "-" : manifestEntry.checksum) + "\t"
+                        + TabSeparatedFields.escape(entry.getKey()));
+                writer.newLine();
+            }
+        } finally {
+            writer.close();
+        }
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @description 清单中的单个文件记录
+     */
+    private static class ManifestEntry {
+        private final long size;
+        private final long modificationTime;
+        private String checksum;
+
+        ManifestEntry(long size, long modificationTime, String checksum) {
+            this.size = size;
+            this.modificationTime = modificationTime;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * @description 同步汇总信息
+     */
+    public static class SyncResult {
+        private long scannedFiles;
+        private long unchangedFiles;
+        private long transferredFiles;
+        private long transferredBytes;
+        private long deletedFiles;
+        private final List<String> failedFiles = new ArrayList<String>();
+        private long elapsedNanos;
+
+        public long getScannedFiles() {
+            return scannedFiles;
+        }
+        public long getUnchangedFiles() {
+            return unchangedFiles;
+        }
+        public long getTransferredFiles() {
+            return transferredFiles;
+        }
+        public long getTransferredBytes() {
+            return transferredBytes;
+        }
+        public long getDeletedFiles() {
+            return deletedFiles;
+        }
+        public List<String> getFailedFiles() {
+            return failedFiles;
+        }
+        public long getElapsedMillis() {
+            return elapsedNanos / 1000000L;
+        }
+
+        @Override
+        public String toString() {
+            return "scannedFiles=" + scannedFiles +
+                    ", unchangedFiles=" + unchangedFiles +
+                    ", transferredFiles=" + transferredFiles +
+                    ", transferredBytes=" + transferredBytes +
+                    ", deletedFiles=" + deletedFiles +
+                    ", failedFiles=" + failedFiles.size() +
+                    ", elapsedMillis=" + getElapsedMillis();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package hdfs;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description 路径元数据缓存（按访问顺序淘汰的LRU缓存，并且每条记录在TTL之后过期），路径不存在的结果同样会被缓存；
+ *               HDFSUtil的修改操作会使相关路径（自身、所有上级文件夹以及所有下级路径）的缓存失效，
+ *               但其他客户端对HDFS的修改只能等待TTL过期后才能感知
+ */
+public class HDFSMetadataCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, CacheEntry> cacheMap;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     *
+     * @param maxEntries 最大缓存条数
+     * @param ttl 缓存有效期
+     * @param timeUnit 有效期单位
+     */
+    public HDFSMetadataCache(int maxEntries, long ttl, TimeUnit timeUnit) {
+        if(maxEntries <= 0 || ttl <= 0) {
+            throw new IllegalArgumentException("maxEntries and ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = timeUnit.toNanos(ttl);
+        this.cacheMap = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if(size() > HDFSMetadataCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     *
+     * @param key 带有文件系统URI的完整路径
+     * @return 未缓存或者已过期时返回null
+     */
+    public synchronized PathMetadata get(String key) {
+        CacheEntry cacheEntry = cacheMap.get(key);
+        if(cacheEntry == null) {
+            misses++;
+            return null;
+        }
+        if(System.nanoTime() - cacheEntry.createNanos > ttlNanos) {
+            cacheMap.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+
+        return cacheEntry.metadata;
+    }
+
+    public synchronized void put(String key, PathMetadata metadata) {
+        cacheMap.put(key, new CacheEntry(metadata, System.nanoTime()));
+    }
+
+    /**
+     *
+     * @param key 带有文件系统URI的完整路径
+     * @description 使路径自身、所有上级文件夹（mkdirs和上传会创建上级文件夹）以及所有下级路径（递归删除）的缓存失效
+     */
+    public synchronized void invalidate(String key) {
+        String trimmedKey = key.endsWith("/") && key.length() > 1 ? key.substring(0, key.length() - 1) : key;
+        Iterator<String> iterator = cacheMap.keySet().iterator();
+        while(iterator.hasNext()) {
+            String cachedKey = iterator.next();
+            if(cachedKey.equals(trimmedKey)
+                    || cachedKey.startsWith(trimmedKey + "/")
+                    || trimmedKey.startsWith(cachedKey.endsWith("/") ? cachedKey : cachedKey + "/")) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        cacheMap.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+    public synchronized long getMisses() {
+        return misses;
+    }
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    public synchronized int size() {
+        return cacheMap.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "size=" + cacheMap.size() +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions;
+    }
+
+    private static class CacheEntry {
+        private final PathMetadata metadata;
+        private final long createNanos;
+
+        CacheEntry(PathMetadata metadata, long createNanos) {
+            this.metadata = metadata;
+            this.createNanos = createNanos;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package hdfs;
+
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @description 基于NIO的HDFS文件下载：通过FSDataInputStream的ByteBufferReadable接口直接读入堆外缓冲区，
+ *               再写入本地FileChannel，或者直接读入预分配本地文件的内存映射区域，减少copyToLocalFile中多次堆内缓冲区拷贝带来的CPU和GC开销
+ */
+public class HDFSNioDownloader {
+
+    /**
+     * @description 本地写入方式
+     */
+    public enum Mode {
+        // 读入可复用的堆外缓冲区后写入FileChannel
+        FILE_CHANNEL,
+        // 预分配本地文件并分段内存映射，数据直接读入映射区域
+        MEMORY_MAPPED
+    }
+
+    // 单次内存映射区域的最大大小（MappedByteBuffer最大为2GB，分段映射也便于及时释放映射）
+    private static final long MAX_MAP_SIZE = 1024L * 1024 * 256;
+    // 输入流不支持ByteBufferReadable时使用的堆内中转数组大小
+    private static final int HEAP_BUFFER_SIZE = 1024 * 64;
+
+    private final Mode mode;
+    // FILE_CHANNEL模式下堆外缓冲区大小
+    private final int bufferSize;
+
+    public HDFSNioDownloader(Mode mode) {
+        this(mode, 1024 * 1024 * 4);
+    }
+
+    /**
+     *
+     * @param mode 本地写入方式
+     * @param bufferSize FILE_CHANNEL模式下堆外缓冲区大小
+     */
+    public HDFSNioDownloader(Mode mode, int bufferSize) {
+        if(bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.mode = mode;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @param hdfsPath HDFS文件
+     * @param localFilePath 本地文件路径(存在则覆盖，父文件夹不存在会自动创建)
+     * @return 下载的字节数
+     * @throws IOException
+     * @description 下载单个文件
+     */
+    public long download(FileSystem hdfs, Path hdfsPath, String localFilePath) throws IOException {
+        long fileLength = hdfs.getFileStatus(hdfsPath).getLen();
+        java.io.File localFile = new java.io.File(localFilePath);
+        if(localFile.getAbsoluteFile().getParentFile() != null) {
+            localFile.getAbsoluteFile().getParentFile().mkdirs();
+        }
+
+        FSDataInputStream in = hdfs.open(hdfsPath);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(localFile, "rw");
+        try {
+            FileChannel fileChannel = randomAccessFile.getChannel();
+            // 本地文件系统等输入流不支持ByteBufferReadable，此时退化为经过堆内数组读取
+            byte[] heapBuffer = in.getWrappedStream() instanceof ByteBufferReadable ? null : new byte[HEAP_BUFFER_SIZE];
+            if(mode == Mode.MEMORY_MAPPED) {
+                randomAccessFile.setLength(fileLength);
+                for(long position = 0; position < fileLength; position += MAX_MAP_SIZE) {
+                    long mapSize = Math.min(MAX_MAP_SIZE, fileLength - position);
+                    MappedByteBuffer mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, position, mapSize);
+                    readFully(in, mappedByteBuffer, heapBuffer);
+                    mappedByteBuffer.force();
+                }
+            } else {
+                randomAccessFile.setLength(0);
+                ByteBuffer byteBuffer = ByteBuffer.allocateDirect(bufferSize);
+                long remaining = fileLength;
+                while(remaining > 0) {
+                    byteBuffer.clear();
+                    if(remaining < byteBuffer.capacity()) {
+                        byteBuffer.limit((int) remaining);
+                    }
+                    readFully(in, byteBuffer, heapBuffer);
+                    byteBuffer.flip();
+                    while(byteBuffer.hasRemaining()) {
+                        fileChannel.write(byteBuffer);
+                    }
+                    remaining -= byteBuffer.limit();
+                }
+            }
+        } finally {
+            randomAccessFile.close();
+            in.close();
+        }
+
+        return fileLength;
+    }
+
+    /**
+     * @description 读满缓冲区的剩余空间（heapBuffer为null时直接读入ByteBuffer）
+     */
+    private void readFully(FSDataInputStream in, ByteBuffer byteBuffer, byte[] heapBuffer) throws IOException {
+        while(byteBuffer.hasRemaining()) {
+            int read;
+            if(heapBuffer == null) {
+                read = in.read(byteBuffer);
+            } else {
+                read = in.read(heapBuffer, 0, Math.min(heapBuffer.length, byteBuffer.remaining()));
+                if(read > 0) {
+                    byteBuffer.put(heapBuffer, 0, read);
+                }
+            }
+            if(read < 0) {
+                throw new EOFException("Unexpected end of file, " + byteBuffer.remaining() + " bytes missing");
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package hdfs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @description HDFS文件按Block并行复制：源文件按Block边界切分为多个区间，多个线程通过positional read并发读取各区间
+ *               并分别写入分段文件，最后通过concat合并分段（不支持concat的文件系统退化为顺序拼接），并校验长度和checksum
+ */
+public class HDFSParallelCopier {
+
+    // 并发复制线程数
+    private final int threads;
+    // 每个线程的读写缓冲区大小
+    private final int bufferSize;
+
+    public HDFSParallelCopier(int threads) {
+        this(threads, 1024 * 1024 * 4);
+    }
+
+    /**
+     *
+     * @param threads 并发复制线程数
+     * @param bufferSize 每个线程的读写缓冲区大小
+     */
+    public HDFSParallelCopier(int threads, int bufferSize) {
+        if(threads <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("threads and bufferSize must be positive");
+        }
+        this.threads = threads;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @param fromPath HDFS源文件
+     * @param toPath HDFS目标文件(存在则覆盖，复制和校验都成功后才替换，失败时原文件保持不变)
+     * @return 复制统计信息
+     * @throws IOException 读写失败或者校验不通过
+     * @description 并行复制单个文件
+     */
+    public CopyStats copy(FileSystem hdfs, Path fromPath, Path toPath) throws IOException {
+        long startTime = System.nanoTime();
+
+        FileStatus fromStatus = hdfs.getFileStatus(fromPath);
+        if(!fromStatus.isFile()) {
+            throw new IOException(fromPath + " is not a file");
+        }
+        long fileLength = fromStatus.getLen();
+        long blockSize = fromStatus.getBlockSize();
+        short replication = fromStatus.getReplication();
+        // 按Block边界切分，每个分段恰好包含一个完整的Block（最后一段除外），满足concat对分段的要求
+        int partCount = (int) Math.max(1, (fileLength + blockSize - 1) / blockSize);
+
+        // 分段文件必须和concat的目标文件位于同一个文件夹下
+        String suffix = UUID.randomUUID().toString();
+        Path partDir = new Path(toPath.getParent(), "." + toPath.getName() + ".parts-" + suffix);
+        hdfs.mkdirs(partDir);
+        // 先合并到目标文件旁边的临时文件，校验通过后再替换已存在的目标文件，合并或者校验失败时原文件不受影响
+        Path tmpPath = new Path(toPath.getParent(), "." + toPath.getName() + ".tmp-" + suffix);
+
+        boolean concatUsed = false;
+        boolean verified = false;
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threads, partCount));
+        FSDataInputStream in = hdfs.open(fromPath, bufferSize);
+        try {
+            List<Path> partPaths = new ArrayList<Path>(partCount);
+            List<Future<Long>> futures = new ArrayList<Future<Long>>(partCount);
+            for(int i = 0; i < partCount; i++) {
+                long offset = i * blockSize;
+                long length = Math.min(blockSize, fileLength - offset);
+                Path partPath = new Path(partDir, String.format("part-%05d", i));
+                partPaths.add(partPath);
+                futures.add(executorService.submit(new PartCopyTask(hdfs, in, partPath, offset, length, blockSize, replication)));
+            }
+            for(Future<Long> future : futures) {
+                waitFor(future);
+            }
+
+            concatUsed = assemble(hdfs, partPaths, tmpPath, blockSize, replication);
+            verify(hdfs, fromPath, fileLength, tmpPath);
+            verified = true;
+        } finally {
+            executorService.shutdownNow();
+            IOUtils.closeStream(in);
+            hdfs.delete(partDir, true);
+            if(!verified) {
+                hdfs.delete(tmpPath, false);
+            }
+        }
+
+        replace(hdfs, tmpPath, toPath);
+
+        return new CopyStats(fileLength, partCount, concatUsed, System.nanoTime() - startTime);
+    }
+
+    /**
+     * @description 合并分段文件：优先使用concat（只修改NameNode元数据，不移动数据），不支持时顺序拼接到目标文件
+     */
+    private boolean assemble(FileSystem hdfs, List<Path> partPaths, Path toPath, long blockSize, short replication) throws IOException {
+        Path firstPart = partPaths.get(0);
+        if(partPaths.size() > 1) {
+            try {
+                hdfs.concat(firstPart, partPaths.subList(1, partPaths.size()).toArray(new Path[partPaths.size() - 1]));
+            } catch (UnsupportedOperationException e) {
+                appendParts(hdfs, partPaths, toPath, blockSize, replication);
+                return false;
+            }
+        }
+        if(!hdfs.rename(firstPart, toPath)) {
+            throw new IOException("Failed to rename " + firstPart + " to " + toPath);
+        }
+
+        return partPaths.size() > 1;
+    }
+
+    /**
+     * @description 用校验通过的临时文件替换目标文件：rename不覆盖已存在的文件，因此先删除原文件再重命名，
+     *               重命名失败时保留临时文件（其中是完整的新文件）
+     */
+    private void replace(FileSystem hdfs, Path tmpPath, Path toPath) throws IOException {
+        if(hdfs.exists(toPath) && !hdfs.delete(toPath, false)) {
+            hdfs.delete(tmpPath, false);
+            throw new IOException("Failed to delete " + toPath);
+        }
+        if(!hdfs.rename(tmpPath, toPath)) {
+            throw new IOException("Failed to rename " + tmpPath + " to " + toPath + ", the copy is kept at " + tmpPath);
+        }
+    }
+
+    private void appendParts(FileSystem hdfs, List<Path> partPaths, Path toPath, long blockSize, short replication) throws IOException {
+        FSDataOutputStream out = hdfs.create(toPath, true, bufferSize, replication, blockSize);
+        try {
+            for(Path partPath : partPaths) {
+                FSDataInputStream partIn = hdfs.open(partPath, bufferSize);
+                try {
+                    IOUtils.copyBytes(partIn, out, bufferSize, false);
+                } finally {
+                    partIn.close();
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @description 校验合并后的文件长度以及checksum（文件系统不提供checksum时只校验长度），校验失败删除该文件
+     */
+    private void verify(FileSystem hdfs, Path fromPath, long fileLength, Path toPath) throws IOException {
+        long copiedLength = hdfs.getFileStatus(toPath).getLen();
+        if(copiedLength != fileLength) {
+            hdfs.delete(toPath, false);
+            throw new IOException("Length mismatch after copy: " + fromPath + "=" + fileLength + ", " + toPath + "=" + copiedLength);
+        }
+
+        FileChecksum fromChecksum = hdfs.getFileChecksum(fromPath);
+        FileChecksum toChecksum = hdfs.getFileChecksum(toPath);
+        if(fromChecksum != null && toChecksum != null && !fromChecksum.equals(toChecksum)) {
+            hdfs.delete(toPath, false);
+            throw new IOException("Checksum mismatch after copy: " + fromChecksum + " != " + toChecksum);
+        }
+    }
+
+    private static void waitFor(Future<Long> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while copying", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * @description 复制一个区间到分段文件（各线程共用同一个输入流，positional read不修改流的读取位置，可以并发调用）
+     */
+    private class PartCopyTask implements Callable<Long> {
+        private final FileSystem hdfs;
+        private final FSDataInputStream in;
+        private final Path partPath;
+        private final long offset;
+        private final long length;
+        private final long blockSize;
+        private final short replication;
+
+        PartCopyTask(FileSystem hdfs, FSDataInputStream in, Path partPath, long offset, long length,
+                     long blockSize, short replication) {
+            this.hdfs = hdfs;
+            this.in = in;
+            this.partPath = partPath;
+            this.offset = offset;
+            this.length = length;
+            this.blockSize = blockSize;
+            this.replication = replication;
+        }
+
+        public Long call() throws IOException {
+            byte[] buffer = new byte[(int) Math.min(bufferSize, Math.max(length, 1))];
+            FSDataOutputStream out = hdfs.create(partPath, true, bufferSize, replication, blockSize);
+            try {
+                long copied = 0;
+                while(copied < length) {
+                    int toRead = (int) Math.min(buffer.length, length - copied);
+                    in.readFully(offset + copied, buffer, 0, toRead);
+                    out.write(buffer, 0, toRead);
+                    copied += toRead;
+                }
+            } finally {
+                out.close();
+            }
+
+            return length;
+        }
+    }
+
+    /**
+     * @description 复制统计信息
+     */
+    public static class CopyStats {
+        private final long bytes;
+        private final int parts;
+        private final boolean concatUsed;
+        private final long elapsedNanos;
+
+        CopyStats(long bytes, int parts, boolean concatUsed, long elapsedNanos) {
+            this.bytes = bytes;
+            this.parts = parts;
+            this.concatUsed = concatUsed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+        public int getParts() {
+            return parts;
+        }
+        public boolean isConcatUsed() {
+            return concatUsed;
+        }
+        public long getElapsedMillis() {
+            return elapsedNanos / 1000000L;
+        }
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : bytes / 1024.0 / 1024.0 * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "bytes=" + bytes +
+                    ", parts=" + parts +
+                    ", concatUsed=" + concatUsed +
+                    ", elapsedMillis=" + getElapsedMillis() +
+                    ", MB/s=" + String.format("%.1f", getMegabytesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package hdfs;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+
+import java.io.IOException;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * @description HDFS并行递归遍历（每个文件夹的listStatus作为一个任务提交到有界的ForkJoinPool中并发执行，
+ *               遍历结果通过回调逐条返回，不在内存中汇总，因此可以用于百万级文件的命名空间）
+ */
+public class HDFSParallelTraversal {
+
+    // 并发执行listStatus的线程数
+    private final int parallelism;
+    // 最大遍历深度（起始路径深度为0，小于0表示不限制）
+    private final int maxDepth;
+    // 结果路径过滤器（只作用于返回的路径，不影响文件夹的继续遍历），可以为null
+    private final PathFilter pathFilter;
+
+    /**
+     *
+     * @param parallelism 并发线程数
+     * @param maxDepth 最大遍历深度（小于0表示不限制）
+     * @param pathFilter 结果路径过滤器（可以为null）
+     */
+    public HDFSParallelTraversal(int parallelism, int maxDepth, PathFilter pathFilter) {
+        if(parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.maxDepth = maxDepth;
+        this.pathFilter = pathFilter;
+    }
+
+    /**
+     *
+     * @param hdfs HDFS客户端（DistributedFileSystem是线程安全的，所有任务共用同一个客户端）
+     * @param pathStr 起始文件或文件夹路径
+     * @param pathConsumer 结果回调（会被多个线程同时调用，因此需要保证线程安全）
+     * @return 本次遍历的统计信息
+     * @description 并行遍历文件夹，与fileRecursiveTraversal一样返回所有文件和空文件夹；
+     *               超过最大深度的文件夹不再展开，直接作为结果返回
+     */
+    public TraversalStats traverse(FileSystem hdfs, String pathStr, Consumer<String> pathConsumer) {
+        TraversalStats stats = new TraversalStats();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long startTime = System.nanoTime();
+        try {
+            pool.invoke(new ListTask(null, hdfs, new Path(pathStr), 0, maxDepth, pathFilter, pathConsumer, stats));
+        } finally {
+            stats.elapsedNanos = System.nanoTime() - startTime;
+            pool.shutdown();
+        }
+
+        return stats;
+    }
+
+    /**
+     * @description 单个文件夹的遍历任务（使用CountedCompleter而不是join等待子任务，避免工作线程阻塞导致线程池扩张）
+     *               静态内部类，遍历参数通过构造函数传入，不持有外部类的引用（ForkJoinTask实现了Serializable）
+     */
+    private static class ListTask extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileSystem hdfs;
+        private final transient Path path;
+        private final int depth;
+        private final int maxDepth;
+        private final transient PathFilter pathFilter;
+        private final transient Consumer<String> pathConsumer;
+        private final transient TraversalStats stats;
+
+        ListTask(CountedCompleter<?> parent, FileSystem hdfs, Path path, int depth, int maxDepth, PathFilter pathFilter,
+                 Consumer<String> pathConsumer, TraversalStats stats) {
+            super(parent);
+            this.hdfs = hdfs;
+            this.path = path;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.pathFilter = pathFilter;
+            this.pathConsumer = pathConsumer;
+            this.stats = stats;
+        }
+
+        @Override
+        public void compute() {
+            FileStatus[] fileStatuses = null;
+            try {
+                fileStatuses = hdfs.listStatus(path);
+            } catch (IOException e) {
+                stats.failedListings.incrementAndGet();
+                e.printStackTrace();
+            } finally {
+                stats.listingRpcs.incrementAndGet();
+            }
+
+            if(fileStatuses != null) {
+                if(fileStatuses.length == 0) {
+                    emit(path);
+                } else {
+                    for(FileStatus fileStatus : fileStatuses) {
+                        if(fileStatus.isFile()) {
+                            emit(fileStatus.getPath());
+                        } else if(maxDepth < 0 || depth < maxDepth) {
+                            addToPendingCount(1);
+                            new ListTask(this, hdfs, fileStatus.getPath(), depth + 1, maxDepth, pathFilter, pathConsumer, stats).fork();
+                        } else {
+                            emit(fileStatus.getPath());
+                        }
+                    }
+                }
+            }
+
+            tryComplete();
+        }
+
+        private void emit(Path resultPath) {
+            if(pathFilter == null || pathFilter.accept(resultPath)) {
+                stats.emittedPaths.incrementAndGet();
+                // 与fileRecursiveTraversal保持一致，返回不带url的路径
+                pathConsumer.accept(resultPath.toUri().getPath());
+            }
+        }
+    }
+
+    /**
+     * @description 遍历统计信息
+     */
+    public static class TraversalStats {
+        private final AtomicLong listingRpcs = new AtomicLong();
+        private final AtomicLong failedListings = new AtomicLong();
+        private final AtomicLong emittedPaths = new AtomicLong();
+        private volatile long elapsedNanos;
+
+        public long getListingRpcs() {
+            return listingRpcs.get();
+        }
+        public long getFailedListings() {
+            return failedListings.get();
+        }
+        public long getEmittedPaths() {
+            return emittedPaths.get();
+        }
+        public long getElapsedMillis() {
+            return elapsedNanos / 1000000L;
+        }
+        public double getListingRpcsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : listingRpcs.get() * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "listingRpcs=" + getListingRpcs() +
+                    ", failedListings=" + getFailedListings() +
+                    ", emittedPaths=" + getEmittedPaths() +
+                    ", elapsedMillis=" + getElapsedMillis() +
+                    ", listingRpcsPerSecond=" + String.format("%.1f", getListingRpcsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package hdfs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * @description 小文件合并：将文件夹下的小文件打包为若干个SequenceFile容器文件（key为原文件路径，value为原文件内容），
+ *               同时生成索引文件_index记录每个原文件所在的容器文件和记录偏移量，以便按原路径随机读取；
+ *               打包后可选地在校验通过后删除原文件，以减少NameNode的元数据数量。
+ *               容器文件可以通过mapreduce.PackedTextInputFormat作为WordCountRunner的输入
+ */
+public class HDFSSmallFileCompactor {
+
+    // 索引文件名（以下划线开头，FileInputFormat会自动忽略）
+    public static final String INDEX_FILE_NAME = "_index";
+
+    // 并发读取小文件的线程数
+    private final int threads;
+    // 小于该大小的文件才会被合并
+    private final long smallFileThreshold;
+    // 小文件整个读入一个byte数组，大小不能超过数组长度上限
+    private static final long MAX_SMALL_FILE_THRESHOLD = Integer.MAX_VALUE - 8;
+    // 单个容器文件的目标大小（超过后写入下一个容器文件）
+    private final long containerSize;
+
+    /**
+     *
+     * @param threads 并发读取小文件的线程数
+     * @param smallFileThreshold 小于该大小的文件才会被合并（不能超过Integer.MAX_VALUE - 8，小文件会整个读入内存）
+     * @param containerSize 单个容器文件的目标大小
+     */
+    public HDFSSmallFileCompactor(int threads, long smallFileThreshold, long containerSize) {
+        if(threads <= 0 || smallFileThreshold <= 0 || containerSize <= 0) {
+            throw new IllegalArgumentException("threads, smallFileThreshold and containerSize must be positive");
+        }
+        if(smallFileThreshold > MAX_SMALL_FILE_THRESHOLD) {
+            throw new IllegalArgumentException("smallFileThreshold must not exceed " + MAX_SMALL_FILE_THRESHOLD + ": " + smallFileThreshold);
+        }
+        this.threads = threads;
+        this.smallFileThreshold = smallFileThreshold;
+        this.containerSize = containerSize;
+    }
+
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @param inputDirPath 需要合并的文件夹
+     * @param outputDirPath 容器文件和索引文件的输出文件夹（位于输入文件夹下时会被排除）
+     * @param deleteOriginals 校验通过后是否删除原文件
+     * @return 合并统计信息
+     * @throws IOException
+     * @description 合并文件夹下的所有小文件
+     */
+    public CompactionStats compact(FileSystem hdfs, String inputDirPath, String outputDirPath, boolean deleteOriginals) throws IOException {
+        long startTime = System.nanoTime();
+        CompactionStats stats = new CompactionStats();
+
+        Path outputDir = hdfs.makeQualified(new Path(outputDirPath));
+        String outputDirStr = outputDir.toUri().getPath();
+        if(hdfs.exists(new Path(outputDir, INDEX_FILE_NAME))) {
+            throw new IOException(outputDir + " already contains packed files");
+        }
+        hdfs.mkdirs(outputDir);
+
+        // 1.找出需要合并的小文件
+        List<LocatedFileStatus> smallFiles = new ArrayList<LocatedFileStatus>();
+        RemoteIterator<LocatedFileStatus> fileIterator = hdfs.listFiles(new Path(inputDirPath), true);
+        while(fileIterator.hasNext()) {
+            LocatedFileStatus fileStatus = fileIterator.next();
+            String filePath = fileStatus.getPath().toUri().getPath();
+            if(filePath.startsWith(outputDirStr + "/") || fileStatus.getLen() >= smallFileThreshold) {
+                continue;
+            }
+            smallFiles.add(fileStatus);
+        }
+
+        // 2.并发读取小文件，由当前线程按顺序写入容器文件（正在读取的文件数量有上限，避免占用过多内存）
+        List<IndexEntry> indexEntries = new ArrayList<IndexEntry>(smallFiles.size());
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        Deque<Future<SmallFile>> pendingReads = new ArrayDeque<Future<SmallFile>>();
+        int maxPendingReads = threads * 4;
+        ContainerWriter containerWriter = new ContainerWriter(hdfs, outputDir);
+        try {
+            for(LocatedFileStatus fileStatus : smallFiles) {
+                if(pendingReads.size() >= maxPendingReads) {
+                    indexEntries.add(containerWriter.append(waitFor(pendingReads.poll())));
+                }
+                pendingReads.add(executorService.submit(new ReadTask(hdfs, fileStatus)));
+            }
+            while(!pendingReads.isEmpty()) {
+                indexEntries.add(containerWriter.append(waitFor(pendingReads.poll())));
+            }
+        } finally {
+            executorService.shutdownNow();
+            containerWriter.close();
+        }
+        writeIndex(hdfs, outputDir, indexEntries);
+        stats.packedFiles = indexEntries.size();
+        stats.containerFiles = containerWriter.containerCount;
+        for(IndexEntry indexEntry : indexEntries) {
+            stats.packedBytes += indexEntry.length;
+        }
+
+        // 3.重新读取容器文件校验内容，校验通过后才删除原文件
+        if(deleteOriginals) {
+            PackedIndex packedIndex = PackedIndex.load(hdfs, outputDirPath);
+            for(IndexEntry indexEntry : indexEntries) {
+                if(packedIndex.verify(hdfs, indexEntry.path) && hdfs.delete(new Path(indexEntry.path), false)) {
+                    stats.deletedFiles++;
+                } else {
+                    stats.failedFiles.add(indexEntry.path);
+                }
+            }
+        }
+        stats.elapsedNanos = System.nanoTime() - startTime;
+
+        return stats;
+    }
+
+    private static SmallFile waitFor(Future<SmallFile> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading small files", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * @description 索引文件格式：每行一个原文件，字段依次为 容器文件名\t记录偏移量\t原文件长度\tCRC32\t原文件路径
+     *               （原文件路径中的\t、换行等字符转义后写入，见TabSeparatedFields）
+     */
+    private void writeIndex(FileSystem hdfs, Path outputDir, List<IndexEntry> indexEntries) throws IOException {
+        FSDataOutputStream out = hdfs.create(new Path(outputDir, INDEX_FILE_NAME), true);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        try {
+            for(IndexEntry indexEntry : indexEntries) {
+                writer.write(indexEntry.container + "\t" + indexEntry.offset + "\t" + indexEntry.length + "\t"
+                        + indexEntry.crc32 + "\t" + TabSeparatedFields.escape(indexEntry.path) + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @description 读取单个小文件的任务
+     */
+    private static class ReadTask implements Callable<SmallFile> {
+        private final FileSystem hdfs;
+        private final LocatedFileStatus fileStatus;
+
+        ReadTask(FileSystem hdfs, LocatedFileStatus fileStatus) {
+            this.hdfs = hdfs;
+            this.fileStatus = fileStatus;
+        }
+
+        public SmallFile call() throws IOException {
+            byte[] content = new byte[(int) fileStatus.getLen()];
+            FSDataInputStream in = hdfs.open(fileStatus.getPath());
+            try {
+                in.readFully(0, content);
+            } finally {
+                in.close();
+            }
+
+            return new SmallFile(fileStatus.getPath().toUri().getPath(), content);
+        }
+    }
+
+    private static class SmallFile {
+        private final String path;
+        private final byte[] content;
+
+        SmallFile(String path, byte[] content) {
+            this.path = path;
+            this.content = content;
+        }
+    }
+
+    /**
+     * @description 容器文件写入（RECORD压缩方式下每条记录可以通过偏移量直接定位，BLOCK压缩则只能定位到同步点）
+     */
+    private class ContainerWriter {
+        private final FileSystem hdfs;
+        private final Path outputDir;
+        private final Text key = new Text();
+        private final BytesWritable value = new BytesWritable();
+        private SequenceFile.Writer writer;
+        private String containerName;
+        private int containerCount = 0;
+
+        ContainerWriter(FileSystem hdfs, Path outputDir) {
+            this.hdfs = hdfs;
+            this.outputDir = outputDir;
+        }
+
+        IndexEntry append(SmallFile smallFile) throws IOException {
+            if(writer == null || writer.getLength() >= containerSize) {
+                close();
+                containerName = String.format("part-%05d.seq", containerCount++);
+                writer = SequenceFile.createWriter(hdfs.getConf(),
+                        SequenceFile.Writer.file(new Path(outputDir, containerName)),
+                        SequenceFile.Writer.keyClass(Text.class),
+                        SequenceFile.Writer.valueClass(BytesWritable.class),
+                        SequenceFile.Writer.compression(SequenceFile.CompressionType.RECORD));
+            }
+
+            long offset = writer.getLength();
+            key.set(smallFile.path);
+            value.set(smallFile.content, 0, smallFile.content.length);
+            writer.append(key, value);
+
+            return new IndexEntry(containerName, offset, smallFile.content.length, crc32(smallFile.content, smallFile.content.length), smallFile.path);
+        }
+
+        void close() throws IOException {
+            if(writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+    }
+
+    private static long crc32(byte[] content, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(content, 0, length);
+        return crc32.getValue();
+    }
+
+    private static class IndexEntry {
+        private final String container;
+        private final long offset;
+        private final long length;
+        private final long crc32;
+        private final String path;
+
+        IndexEntry(String container, long offset, long length, long crc32, String path) {
+            this.container = container;
+            this.offset = offset;
+            this.length = length;
+            this.crc32 = crc32;
+            this.path = path;
+        }
+    }
+
+    /**
+     * @description 合并结果索引，用于按原文件路径随机读取
+     */
+    public static class PackedIndex {
+        private final Path outputDir;
+        private final Map<String, IndexEntry> indexMap;
+
+        private PackedIndex(Path outputDir, Map<String, IndexEntry> indexMap) {
+            this.outputDir = outputDir;
+            this.indexMap = indexMap;
+        }
+
+        /**
+         *
+         * @param hdfs HDFS客户端
+         * @param outputDirPath 合并输出文件夹
+         * @return
+         * @throws IOException
+         * @description 加载索引文件
+         */
+        public static PackedIndex load(FileSystem hdfs, String outputDirPath) throws IOException {
+            Path outputDir = new Path(outputDirPath);
+            Map<String, IndexEntry> indexMap = new HashMap<String, IndexEntry>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    hdfs.open(new Path(outputDir, INDEX_FILE_NAME)), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", 5);
+                    String path = TabSeparatedFields.unescape(fields[4]);
+                    indexMap.put(path, new IndexEntry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                            Long.parseLong(fields[3]), path));
+                }
+            } finally {
+                reader.close();
+            }
+
+            return new PackedIndex(outputDir, indexMap);
+        }
+
+        public boolean contains(String originalPath) {
+            return indexMap.containsKey(originalPath);
+        }
+
+        public int size() {
+            return indexMap.size();
+        }
+
+        /**
+         *
+         * @param hdfs HDFS客户端
+         * @param originalPath 原文件路径（不带URI）
+         * @return 原文件内容，不存在时返回null
+         * @throws IOException
+         * @description 按原文件路径读取内容（直接定位到记录偏移量，不需要扫描容器文件）
+         */
+        public byte[] read(FileSystem hdfs, String originalPath) throws IOException {
+            IndexEntry indexEntry = indexMap.get(originalPath);
+            if(indexEntry == null) {
+                return null;
+            }
+
+            SequenceFile.Reader reader = new SequenceFile.Reader(hdfs.getConf(),
+                    SequenceFile.Reader.file(new Path(outputDir, indexEntry.container)));
+            try {
+                reader.seek(indexEntry.offset);
+                Text key = new Text();
+                BytesWritable value = new BytesWritable();
+                if(!reader.next(key, value) || !originalPath.equals(key.toString())) {
+                    throw new IOException("Packed index is inconsistent with " + indexEntry.container + " for " + originalPath);
+                }
+
+                return value.copyBytes();
+            } finally {
+                IOUtils.closeStream(reader);
+            }
+        }
+
+        boolean verify(FileSystem hdfs, String originalPath) {
+            try {
+                byte[] content = read(hdfs, originalPath);
+                IndexEntry indexEntry = indexMap.get(originalPath);
+                return content != null && content.length == indexEntry.length && crc32(content, content.length) == indexEntry.crc32;
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @description 合并统计信息
+     */
+    public static class CompactionStats {
+        private long packedFiles;
+        private long packedBytes;
+        private int containerFiles;
+        private long deletedFiles;
+        private final List<String> failedFiles = new ArrayList<String>();
+        private long elapsedNanos;
+
+        public long getPackedFiles() {
+            return packedFiles;
+        }
+        public long getPackedBytes() {
+            return packedBytes;
+        }
+        public int getContainerFiles() {
+            return containerFiles;
+        }
+        public long getDeletedFiles() {
+            return deletedFiles;
+        }
+        public List<String> getFailedFiles() {
+            return failedFiles;
+        }
+        public long getElapsedMillis() {
+            return elapsedNanos / 1000000L;
+        }
+
+        @Override
+        public String toString() {
+            return "packedFiles=" + packedFiles +
+                    ", packedBytes=" + packedBytes +
+                    ", containerFiles=" + containerFiles +
+                    ", deletedFiles=" + deletedFiles +
+                    ", failedFiles=" + failedFiles.size() +
+                    ", elapsedMillis=" + getElapsedMillis();
+        }
+    }
+}
@@ -4,18 +4,47 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.*;
 import org.apache.hadoop.io.IOUtils;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * @description HDFS操作类
  */
 public class HDFSUtil {
 
-    // 文件路径集合
-    private Set<String> filPathStrSet = new HashSet<String>();
+    // HDFS客户端管理对象（为null时保持原有行为：每次操作结束后关闭传入的客户端）
+    private final HDFSClientManager clientManager;
+    // 路径元数据缓存（为null时不缓存）
+    private final HDFSMetadataCache metadataCache;
+
+    public HDFSUtil() {
+        this(null, null);
+    }
+
+    /**
+     *
+     * @param clientManager HDFS客户端管理对象
+     * @description 使用客户端管理对象时，getHadoopFileSystem返回缓存的客户端，并且各操作方法不再关闭被管理的客户端，
+     *               客户端统一由HDFSClientManager.shutdown关闭
+     */
+    public HDFSUtil(HDFSClientManager clientManager) {
+        this(clientManager, null);
+    }
+
+    /**
+     *
+     * @param clientManager HDFS客户端管理对象（可以为null）
+     * @param metadataCache 路径元数据缓存（可以为null），getPathMetadata和checkPath优先读取缓存，
+     *                      本类中的修改操作(createDir、deletePath、renamePath、uploadFile以及复制)会使相关路径的缓存失效
+     */
+    public HDFSUtil(HDFSClientManager clientManager, HDFSMetadataCache metadataCache) {
+        this.clientManager = clientManager;
+        this.metadataCache = metadataCache;
+    }
 
     /**
      *
@@ -27,9 +56,13 @@ public class HDFSUtil {
     public FileSystem getHadoopFileSystem(String uriStr, String user) {
         FileSystem hdfs = null;
 
-        Configuration configuration = new Configuration();
         try {
-            hdfs = FileSystem.get(new URI(uriStr), configuration, user);
+            if(clientManager != null) {
+                hdfs = clientManager.getFileSystem(uriStr, user);
+            } else {
+                Configuration configuration = new Configuration();
+                hdfs = FileSystem.get(new URI(uriStr), configuration, user);
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -37,6 +70,34 @@ public class HDFSUtil {
         return hdfs;
     }
 
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @description 操作结束后释放客户端（被HDFSClientManager管理的客户端保持打开以便复用，其余客户端直接关闭）
+     */
+    private void releaseFileSystem(FileSystem hdfs) {
+        if(hdfs == null || (clientManager != null && clientManager.isManaged(hdfs))) {
+            return;
+        }
+        try {
+            hdfs.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @param path 被修改的路径
+     * @description 修改操作之后使相关路径的元数据缓存失效
+     */
+    private void invalidateMetadata(FileSystem hdfs, Path path) {
+        if(metadataCache != null && hdfs != null) {
+            metadataCache.invalidate(hdfs.makeQualified(path).toString());
+        }
+    }
+
     /**
      *
      * @param hdfs HDFS客户端
@@ -53,11 +114,8 @@ public class HDFSUtil {
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            try {
-                hdfs.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            invalidateMetadata(hdfs, path);
+            releaseFileSystem(hdfs);
         }
 
         return result;
@@ -80,11 +138,8 @@ public class HDFSUtil {
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            try {
-                hdfs.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            invalidateMetadata(hdfs, path);
+            releaseFileSystem(hdfs);
         }
 
         return result;
@@ -109,11 +164,9 @@ public class HDFSUtil {
         } catch (IOException e) {
             e.printStackTrace();
         } finally {
-            try {
-                hdfs.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            invalidateMetadata(hdfs, oldPath);
+            invalidateMetadata(hdfs, newPath);
+            releaseFileSystem(hdfs);
         }
 
         return result;
@@ -124,22 +177,25 @@ public class HDFSUtil {
      * @param hdfs HDFS客户端
      * @param localFilePath 本地文件路径
      * @param hdfsFilePath HDFS文件路径
+     * @return
      * @description 上传文件(如果上传的路径不存在会自动创建；如果存在同名的文件，会覆盖)
      */
-    public void uploadFile(FileSystem hdfs, String localFilePath, String hdfsFilePath) {
+    public boolean uploadFile(FileSystem hdfs, String localFilePath, String hdfsFilePath) {
+        boolean result = false;
+
         Path localPath = new Path(localFilePath);
         Path hdfsPath = new Path(hdfsFilePath);
         try {
             hdfs.copyFromLocalFile(localPath, hdfsPath);
+            result = true;
         } catch (IOException e) {
             e.printStackTrace();
         } finally {
-            try {
-                hdfs.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            invalidateMetadata(hdfs, hdfsPath);
+            releaseFileSystem(hdfs);
         }
+
+        return result;
     }
 
     /**
@@ -147,23 +203,52 @@ public class HDFSUtil {
      * @param hdfs HDFS客户端
      * @param hdfsFilePath HDFS文件路径
      * @param localFilePath 本地文件或文件夹路径
+     * @return
      * @descriiption 下载文件
      */
-    public void downloadFile(FileSystem hdfs, String hdfsFilePath, String localFilePath) {
+    public boolean downloadFile(FileSystem hdfs, String hdfsFilePath, String localFilePath) {
+        boolean result = false;
+
         Path hdfsPath = new Path(hdfsFilePath);
         Path localPath = new Path(localFilePath);
         try {
             // 1:false参数表示不删除源文件，4:true参数表示使用本地原文件系统，因为这个Demo程序是在Windows系统下运行的。
             hdfs.copyToLocalFile(false, hdfsPath ,localPath, true);
+            result = true;
         } catch (IOException e) {
             e.printStackTrace();
         } finally {
-            try {
-                hdfs.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            releaseFileSystem(hdfs);
         }
+
+        return result;
+    }
+
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @param hdfsFilePath HDFS文件路径
+     * @param localFilePath 本地文件路径
+     * @param memoryMapped true:数据直接读入预分配本地文件的内存映射区域 false:读入堆外缓冲区后写入FileChannel
+     * @return
+     * @description 基于NIO下载文件(适用于GB级别的大文件，减少堆内缓冲区拷贝带来的CPU和GC开销)
+     */
+    public boolean downloadFileNio(FileSystem hdfs, String hdfsFilePath, String localFilePath, boolean memoryMapped) {
+        boolean result = false;
+
+        Path hdfsPath = new Path(hdfsFilePath);
+        try {
+            HDFSNioDownloader nioDownloader = new HDFSNioDownloader(memoryMapped
+                    ? HDFSNioDownloader.Mode.MEMORY_MAPPED : HDFSNioDownloader.Mode.FILE_CHANNEL);
+            nioDownloader.download(hdfs, hdfsPath, localFilePath);
+            result = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            releaseFileSystem(hdfs);
+        }
+
+        return result;
     }
 
     /**
@@ -192,39 +277,85 @@ public class HDFSUtil {
             try {
                 fsDataInputStream.close();
                 fsDataOutputStream.close();
-                hdfs.close();;
             } catch (IOException e) {
                 e.printStackTrace();
             }
+            invalidateMetadata(hdfs, toHDFSPath);
+            releaseFileSystem(hdfs);
         }
     }
 
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @param fromHDFSFilePath HDFS源路径
+     * @param toHDFSFilePath HDFS复制路径(存在则覆盖)
+     * @param threads 并发复制线程数
+     * @return 复制统计信息(复制或者校验失败返回null)
+     * @description HDFS之间文件的并行复制(按Block边界切分后并发读取，适用于GB级别的大文件)
+     */
+    public HDFSParallelCopier.CopyStats copyFileBetweenHDFSParallel(FileSystem hdfs, String fromHDFSFilePath, String toHDFSFilePath, int threads) {
+        HDFSParallelCopier.CopyStats copyStats = null;
+
+        Path fromHDFSPath = new Path(fromHDFSFilePath);
+        Path toHDFSPath = new Path(toHDFSFilePath);
+        try {
+            copyStats = new HDFSParallelCopier(threads).copy(hdfs, fromHDFSPath, toHDFSPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            invalidateMetadata(hdfs, toHDFSPath);
+            releaseFileSystem(hdfs);
+        }
+
+        return copyStats;
+    }
+
     /**
      *
      * @param hdfs HDFS客户端
      * @param pathStr 文件或文件夹路径
-     * @description 文件的简单判断(包括是否存在，是否文件夹，还是文件)
+     * @return 路径元数据(路径不存在时exists()为false，获取失败返回null)
+     * @description 获取文件或文件夹的元数据(只调用一次getFileStatus，而不是分别调用exists、isDirectory、isFile；配置了元数据缓存时优先读取缓存)
      */
-    public void checkPath(FileSystem hdfs, String pathStr) {
-        boolean isExists = false;
-        boolean isDirectory = false;
-        boolean isFile = false;
+    public PathMetadata getPathMetadata(FileSystem hdfs, String pathStr) {
+        PathMetadata pathMetadata = null;
 
         Path path = new Path(pathStr);
         try {
-            isExists = hdfs.exists(path);
-            isDirectory = hdfs.isDirectory(path);
-            isFile = hdfs.isFile(path);
+            String cacheKey = hdfs.makeQualified(path).toString();
+            pathMetadata = metadataCache == null ? null : metadataCache.get(cacheKey);
+            if(pathMetadata == null) {
+                try {
+                    pathMetadata = PathMetadata.of(pathStr, hdfs.getFileStatus(path));
+                } catch (FileNotFoundException e) {
+                    pathMetadata = PathMetadata.missing(pathStr);
+                }
+                if(metadataCache != null) {
+                    metadataCache.put(cacheKey, pathMetadata);
+                }
+            }
         } catch (IOException e) {
             e.printStackTrace();
         } finally {
-            try {
-                hdfs.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            releaseFileSystem(hdfs);
         }
 
+        return pathMetadata;
+    }
+
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @param pathStr 文件或文件夹路径
+     * @description 文件的简单判断(包括是否存在，是否文件夹，还是文件)
+     */
+    public void checkPath(FileSystem hdfs, String pathStr) {
+        PathMetadata pathMetadata = getPathMetadata(hdfs, pathStr);
+        boolean isExists = pathMetadata != null && pathMetadata.exists();
+        boolean isDirectory = isExists && pathMetadata.isDirectory();
+        boolean isFile = isExists && pathMetadata.isFile();
+
         if(!isExists) {
             System.out.println(pathStr + " doesn't exist. ");
         } else {
@@ -247,8 +378,14 @@ public class HDFSUtil {
      *               hdfs.listFiles(path, recursive) : false:获取下级文件目录中的文件 true:递归获取目录下的所有文件
      */
     public Set<String> fileRecursiveTraversal(FileSystem hdfs, String pathStr) {
-        Path path = new Path(pathStr);
+        // 每次调用使用独立的结果集合，避免多次调用之间结果累积以及多线程调用时相互干扰
+        Set<String> filPathStrSet = new HashSet<String>();
+        fileRecursiveTraversal(hdfs, new Path(pathStr), filPathStrSet);
+
+        return filPathStrSet;
+    }
 
+    private void fileRecursiveTraversal(FileSystem hdfs, Path path, Set<String> filPathStrSet) {
         FileStatus[] fileStatuses = null;
         try {
             fileStatuses = hdfs.listStatus(path);
@@ -260,15 +397,31 @@ public class HDFSUtil {
                         // getPath()方法获取的是FileStatus对象的URL路径。FileStatus.getPath().toUri().getPath()获取的路径才是不带url的路径
                         filPathStrSet.add(fileStatus.getPath().toUri().getPath());
                     } else {
-                        fileRecursiveTraversal(hdfs, fileStatus.getPath().toUri().getPath());
+                        fileRecursiveTraversal(hdfs, fileStatus.getPath(), filPathStrSet);
                     }
                 }
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
+    }
 
-        return filPathStrSet;
+    /**
+     *
+     * @param hdfs HDFS客户端
+     * @param pathStr 文件或文件夹路径
+     * @param parallelism 并发执行listStatus的线程数
+     * @param maxDepth 最大遍历深度（小于0表示不限制）
+     * @param pathFilter 结果路径过滤器（可以为null）
+     * @param pathConsumer 结果回调（多线程调用，需要线程安全）
+     * @return 遍历统计信息（包括listStatus RPC次数以及每秒RPC数）
+     * @description 并行递归遍历文件夹(列出所有文件和空文件夹)，结果以流的方式逐条回调而不是汇总到集合中
+     */
+    public HDFSParallelTraversal.TraversalStats fileParallelTraversal(FileSystem hdfs, String pathStr, int parallelism, int maxDepth,
+                                                                      PathFilter pathFilter, Consumer<String> pathConsumer) {
+        HDFSParallelTraversal traversal = new HDFSParallelTraversal(parallelism, maxDepth, pathFilter);
+
+        return traversal.traverse(hdfs, pathStr, pathConsumer);
     }
 
     /**
@@ -278,6 +431,14 @@ public class HDFSUtil {
      */
     public static void main(String[] args) {
         HDFSUtil hadoopTest = new HDFSUtil();
+        // 复用客户端模式（多次操作共用同一个客户端，最后统一关闭）
+//        HDFSClientManager clientManager = new HDFSClientManager();
+//        HDFSUtil pooledHadoopTest = new HDFSUtil(clientManager);
+//        pooledHadoopTest.createDir(pooledHadoopTest.getHadoopFileSystem("hdfs://wonder1:9000", "wonder"), "/aaa/bbb/ccc");
+//        pooledHadoopTest.checkPath(pooledHadoopTest.getHadoopFileSystem("hdfs://wonder1:9000", "wonder"), "/aaa/bbb/ccc");
+//        System.out.println(clientManager);
+//        clientManager.shutdown();
+
         // 单机模式（HDFS可以直接解析主机）
         FileSystem hdfs = hadoopTest.getHadoopFileSystem("hdfs://wonder1:9000", "wonder");
         // HA模式（HA模式的HDFS不能直接解析nameservice，需要引入HA相关配置，因此需要引入配置文件或者配置Configuration对象）
@@ -293,15 +454,79 @@ public class HDFSUtil {
 
 //        hadoopTest.renamePath(hdfs, "/aaa/bbb/ccc", "aaa/bbb/ddd");
 
+        // 异步批量命名空间操作（共用一个客户端，最多16个操作同时执行；同一批中的操作顺序不确定，rename依赖mkdir，因此分两批提交）
+//        HDFSBatchNamespace batchNamespace = new HDFSBatchNamespace(hdfs, 16);
+//        List<HDFSBatchNamespace.NamespaceOperation> operations = new ArrayList<HDFSBatchNamespace.NamespaceOperation>();
+//        operations.add(HDFSBatchNamespace.NamespaceOperation.mkdir("/tmp/job_001"));
+//        operations.add(HDFSBatchNamespace.NamespaceOperation.delete("/tmp/job_000", true));
+//        for(HDFSBatchNamespace.OperationResult operationResult : batchNamespace.submitAll(operations).join()) {
+//            System.out.println(operationResult);
+//        }
+//        List<HDFSBatchNamespace.NamespaceOperation> renames = new ArrayList<HDFSBatchNamespace.NamespaceOperation>();
+//        renames.add(HDFSBatchNamespace.NamespaceOperation.rename("/tmp/job_001", "/tmp/job_002"));
+//        System.out.println(batchNamespace.submitAll(renames).join());
+//        batchNamespace.shutdown();
+
 //        hadoopTest.downloadFile(hdfs, "/aaa/bbb/ccc/test.txt", "C:/Users/13160/Desktop/test.txt");
 
+//        hadoopTest.downloadFileNio(hdfs, "/aaa/bbb/ccc/test.txt", "C:/Users/13160/Desktop/test.txt", true);
+
+        // 批量上传/下载文件夹（8个线程并发，失败重试3次，每5秒输出一次进度）
+//        HDFSClientManager bulkClientManager = new HDFSClientManager();
+//        HDFSBulkTransfer bulkTransfer = new HDFSBulkTransfer(bulkClientManager, "hdfs://wonder1:9000", "wonder", 8, 3, 5000);
+//        try {
+//            System.out.println(bulkTransfer.uploadDir("C:/Users/13160/Desktop/logs", "/logs"));
+//            System.out.println(bulkTransfer.downloadDir("/logs", "C:/Users/13160/Desktop/logs_copy"));
+//        } catch (IOException e) {
+//            e.printStackTrace();
+//        } finally {
+//            bulkClientManager.shutdown();
+//        }
+
+        // 增量同步（只上传新增或变化的文件，并删除HDFS上已在本地删除的文件）
+//        HDFSClientManager syncClientManager = new HDFSClientManager();
+//        HDFSIncrementalSync incrementalSync = new HDFSIncrementalSync(syncClientManager, "hdfs://wonder1:9000", "wonder", 8, 3);
+//        try {
+//            System.out.println(incrementalSync.sync("C:/Users/13160/Desktop/logs", "/logs",
+//                    "C:/Users/13160/Desktop/logs.manifest", false, true));
+//        } catch (IOException e) {
+//            e.printStackTrace();
+//        } finally {
+//            syncClientManager.shutdown();
+//        }
+
 //        hadoopTest.copyFileBetweenHDFS(hdfs, "/aaa/bbb/ccc/test.txt", "/aaa/bbb/hello.txt");
 
+//        System.out.println(hadoopTest.copyFileBetweenHDFSParallel(hdfs, "/aaa/bbb/ccc/big.dat", "/aaa/bbb/big.dat", 8));
+
 //        hadoopTest.checkPath(hdfs, "/aaa/bbb/ccc/test.txt");
 
+        // 元数据查询（使用客户端管理对象和元数据缓存，重复查询同一路径时不再请求NameNode）
+//        HDFSClientManager metadataClientManager = new HDFSClientManager();
+//        HDFSMetadataCache metadataCache = new HDFSMetadataCache(10000, 30, TimeUnit.SECONDS);
+//        HDFSUtil cachedHadoopTest = new HDFSUtil(metadataClientManager, metadataCache);
+//        FileSystem cachedHdfs = cachedHadoopTest.getHadoopFileSystem("hdfs://wonder1:9000", "wonder");
+//        System.out.println(cachedHadoopTest.getPathMetadata(cachedHdfs, "/aaa/bbb/ccc/test.txt"));
+//        System.out.println(metadataCache);
+//        metadataClientManager.shutdown();
+
+        // 合并小文件（小于1MB的文件打包为256MB左右的SequenceFile，校验后删除原文件）
+//        try {
+//            HDFSSmallFileCompactor compactor = new HDFSSmallFileCompactor(8, 1024 * 1024, 1024L * 1024 * 256);
+//            System.out.println(compactor.compact(hdfs, "/storm/output", "/storm/packed", true));
+//            System.out.println(new String(HDFSSmallFileCompactor.PackedIndex.load(hdfs, "/storm/packed")
+//                    .read(hdfs, "/storm/output/part-1.txt")));
+//        } catch (IOException e) {
+//            e.printStackTrace();
+//        }
+
 //        Set<String> set = hadoopTest.fileRecursiveTraversal(hdfs, "/");
 //        for(String item : set) {
 //            System.out.println(item);
 //        }
+
+//        HDFSParallelTraversal.TraversalStats stats = hadoopTest.fileParallelTraversal(hdfs, "/", 16, -1, null,
+//                path -> System.out.println(path));
+//        System.out.println(stats);
     }
 }
@@ -0,0 +1,73 @@
+package hdfs;
+
+import org.apache.hadoop.fs.FileStatus;
+
+/**
+ * @description 文件或文件夹元数据（由一次getFileStatus调用得到，路径不存在时exists为false）
+ */
+public class PathMetadata {
+
+    private final String path;
+    // 路径不存在时为null（owner、group等字段由FileStatus按需获取，本地文件系统获取权限信息需要调用shell命令）
+    private final FileStatus fileStatus;
+
+    private PathMetadata(String path, FileStatus fileStatus) {
+        this.path = path;
+        this.fileStatus = fileStatus;
+    }
+
+    public static PathMetadata of(String path, FileStatus fileStatus) {
+        return new PathMetadata(path, fileStatus);
+    }
+
+    public static PathMetadata missing(String path) {
+        return new PathMetadata(path, null);
+    }
+
+    public String getPath() {
+        return path;
+    }
+    public boolean exists() {
+        return fileStatus != null;
+    }
+    public boolean isDirectory() {
+        return fileStatus != null && fileStatus.isDirectory();
+    }
+    public boolean isFile() {
+        return fileStatus != null && fileStatus.isFile();
+    }
+    public long getLength() {
+        return fileStatus == null ? 0L : fileStatus.getLen();
+    }
+    public long getModificationTime() {
+        return fileStatus == null ? 0L : fileStatus.getModificationTime();
+    }
+    public short getReplication() {
+        return fileStatus == null ? 0 : fileStatus.getReplication();
+    }
+    public long getBlockSize() {
+        return fileStatus == null ? 0L : fileStatus.getBlockSize();
+    }
+    public String getOwner() {
+        return fileStatus == null ? null : fileStatus.getOwner();
+    }
+    public String getGroup() {
+        return fileStatus == null ? null : fileStatus.getGroup();
+    }
+
+    @Override
+    public String toString() {
+        if(fileStatus == null) {
+            return "path=" + path + ", exists=false";
+        }
+        return "path=" + path +
+                ", exists=true" +
+                ", directory=" + isDirectory() +
+                ", length=" + getLength() +
+                ", modificationTime=" + getModificationTime() +
+                ", replication=" + getReplication() +
+                ", blockSize=" + getBlockSize() +
+                ", owner=" + getOwner() +
+                ", group=" + getGroup();
+    }
+}
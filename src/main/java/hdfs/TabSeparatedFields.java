@@ -0,0 +1,70 @@
+package hdfs;
+
+/**
+ * @description 按行、按\t分隔字段的索引和清单文件中，路径字段的转义：\\、\t、\n、\r分别写为\\\\、\\t、\\n、\\r，
+ *               路径中包含\t或者换行时也能按行、按字段正确读回（不包含这些字符以及\\的路径转义前后相同）
+ */
+final class TabSeparatedFields {
+
+    private TabSeparatedFields() {
+    }
+
+    static String escape(String field) {
+        StringBuilder builder = null;
+        for(int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            String replacement;
+            switch(c) {
+                case '\\': replacement = "\\\\"; break;
+                case '\t': replacement = "\\t"; break;
+                case '\n': replacement = "\\n"; break;
+                case '\r': replacement = "\\r"; break;
+                default: replacement = null;
+            }
+            if(replacement != null && builder == null) {
+                builder = new StringBuilder(field.length() + 8).append(field, 0, i);
+            }
+            if(builder != null) {
+                if(replacement != null) {
+                    builder.append(replacement);
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+
+        return builder == null ? field : builder.toString();
+    }
+
+    /**
+     *
+     * @param field escape的结果
+     * @return
+     * @throws IllegalArgumentException 不是合法的转义序列
+     */
+    static String unescape(String field) {
+        if(field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder builder = new StringBuilder(field.length());
+        for(int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if(c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if(++i == field.length()) {
+                throw new IllegalArgumentException("Dangling escape in " + field);
+            }
+            switch(field.charAt(i)) {
+                case '\\': builder.append('\\'); break;
+                case 't': builder.append('\t'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                default: throw new IllegalArgumentException("Invalid escape \\" + field.charAt(i) + " in " + field);
+            }
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package mapreduce;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.SequenceFileRecordReader;
+import org.apache.hadoop.util.LineReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * @description 读取hdfs.HDFSSmallFileCompactor生成的容器文件（SequenceFile<原文件路径, 原文件内容>），
+ *               并把每个原文件的内容按行拆开，使mapper得到的key-value与TextInputFormat相同（key为行在原文件中的偏移量，value为行内容）
+ *               容器文件按SequenceFile的同步点切分，因此一个容器文件可以由多个map task并行处理
+ */
+public class PackedTextInputFormat extends FileInputFormat<LongWritable, Text> {
+
+    @Override
+    public RecordReader<LongWritable, Text> createRecordReader(InputSplit split, TaskAttemptContext context) {
+        return new PackedLineRecordReader();
+    }
+
+    /**
+     * @description 逐条读取容器文件中的原文件，再逐行读取原文件内容
+     */
+    public static class PackedLineRecordReader extends RecordReader<LongWritable, Text> {
+        private final SequenceFileRecordReader<Text, BytesWritable> fileReader = new SequenceFileRecordReader<Text, BytesWritable>();
+        private LineReader lineReader = null;
+        private long lineOffset = 0;
+        private final LongWritable key = new LongWritable();
+        private final Text value = new Text();
+
+        @Override
+        public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
+            fileReader.initialize(split, context);
+        }
+
+        @Override
+        public boolean nextKeyValue() throws IOException, InterruptedException {
+            while(true) {
+                if(lineReader == null) {
+                    if(!fileReader.nextKeyValue()) {
+                        return false;
+                    }
+                    BytesWritable content = fileReader.getCurrentValue();
+                    lineReader = new LineReader(new ByteArrayInputStream(content.getBytes(), 0, content.getLength()));
+                    lineOffset = 0;
+                }
+
+                int readBytes = lineReader.readLine(value);
+                if(readBytes == 0) {
+                    lineReader.close();
+                    lineReader = null;
+                    continue;
+                }
+                key.set(lineOffset);
+                lineOffset += readBytes;
+
+                return true;
+            }
+        }
+
+        @Override
+        public LongWritable getCurrentKey() {
+            return key;
+        }
+
+        @Override
+        public Text getCurrentValue() {
+            return value;
+        }
+
+        @Override
+        public float getProgress() throws IOException {
+            return fileReader.getProgress();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if(lineReader != null) {
+                lineReader.close();
+            }
+            fileReader.close();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package mapreduce;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// 以单词字节为键、次数为值的开放寻址哈希表，用于WordCountMapper的map内聚合（in-mapper combining）
+// 所有数组在创建时一次性分配：单词字节依次追加到keyBytes中，table只保存条目下标，线性探测解决冲突
+// 条目数或者单词字节数达到上限时add返回false，由调用者输出（flush）后clear再继续，内存占用固定，map过程中不分配对象
+public class TokenCountMap {
+
+    private static final int EMPTY = -1;
+
+    private final int maxEntries;
+    // 槽位数为2的幂且不小于maxEntries的2倍，负载因子不超过0.5
+    private final int[] table;
+    private final int mask;
+
+    private final byte[] keyBytes;
+    private final int[] keyOffsets;
+    private final int[] keyLengths;
+    private final int[] hashes;
+    private final long[] counts;
+
+    private int size = 0;
+    private int usedKeyBytes = 0;
+
+    /**
+     *
+     * @param maxEntries 最多保存的不同单词数
+     * @param maxKeyBytes 所有单词字节数之和的上限
+     */
+    public TokenCountMap(int maxEntries, int maxKeyBytes) {
+        if(maxEntries < 1 || maxEntries > (1 << 29) || maxKeyBytes < 1) {
+            throw new IllegalArgumentException("maxEntries must be between 1 and 2^29 and maxKeyBytes must be positive");
+        }
+        this.maxEntries = maxEntries;
+        int capacity = Integer.highestOneBit(maxEntries * 2 - 1) << 1;
+        this.table = new int[Math.max(2, capacity)];
+        this.mask = table.length - 1;
+        Arrays.fill(table, EMPTY);
+        this.keyBytes = new byte[maxKeyBytes];
+        this.keyOffsets = new int[maxEntries];
+        this.keyLengths = new int[maxEntries];
+        this.hashes = new int[maxEntries];
+        this.counts = new long[maxEntries];
+    }
+
+    /**
+     *
+     * @param bytes 单词所在的字节数组
+     * @param offset 单词起始位置
+     * @param length 单词字节数
+     * @param delta 增加的次数
+     * @return 已满（需要新增条目但条目数或者字节数达到上限）时返回false，此时没有修改
+     */
+    public boolean add(byte[] bytes, int offset, int length, long delta) {
+        int hash = hash(bytes, offset, length);
+        int slot = hash & mask;
+        int entry;
+        while((entry = table[slot]) != EMPTY) {
+            if(hashes[entry] == hash && equals(entry, bytes, offset, length)) {
+                counts[entry] += delta;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if(size == maxEntries || usedKeyBytes + length > keyBytes.length) {
+            return false;
+        }
+
+        System.arraycopy(bytes, offset, keyBytes, usedKeyBytes, length);
+        keyOffsets[size] = usedKeyBytes;
+        keyLengths[size] = length;
+        hashes[size] = hash;
+        counts[size] = delta;
+        table[slot] = size;
+        usedKeyBytes += length;
+        size++;
+
+        return true;
+    }
+
+    /**
+     *
+     * @param visitor 按插入顺序访问每个单词及其次数
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void forEach(Visitor visitor) throws IOException, InterruptedException {
+        for(int i = 0; i < size; i++) {
+            visitor.visit(keyBytes, keyOffsets[i], keyLengths[i], counts[i]);
+        }
+    }
+
+    // 只清空已使用的槽位，条目较少时不需要遍历整个table
+    public void clear() {
+        if(size < table.length / 8) {
+            for(int i = 0; i < size; i++) {
+                int slot = hashes[i] & mask;
+                while(table[slot] != i) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = EMPTY;
+            }
+        } else {
+            Arrays.fill(table, EMPTY);
+        }
+        size = 0;
+        usedKeyBytes = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    public int getUsedKeyBytes() {
+        return usedKeyBytes;
+    }
+
+    private boolean equals(int entry, byte[] bytes, int offset, int length) {
+        if(keyLengths[entry] != length) {
+            return false;
+        }
+        int keyOffset = keyOffsets[entry];
+        for(int i = 0; i < length; i++) {
+            if(keyBytes[keyOffset + i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // FNV-1a后再经过murmur3的混合函数，使低位也分布均匀（槽位只取低位）
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 0x811c9dc5;
+        for(int i = offset; i < offset + length; i++) {
+            h ^= bytes[i];
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+
+        return h;
+    }
+
+    public interface Visitor {
+        void visit(byte[] bytes, int offset, int length, long count) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,139 @@
+package mapreduce;
+
+import java.util.Arrays;
+
+// 直接在UTF-8字节上切分单词，不转换为String，也不分配对象：reset后循环调用next，单词为bytes[getTokenStart(), getTokenStart() + getTokenLength())
+// ASCII分隔符按字节查表；UTF-8多字节字符的每个字节都大于等于0x80，不会被误认为ASCII分隔符，
+// 只有分隔符中包含非ASCII字符（例如中文标点、全角空格）时才需要解码多字节字符；连续的分隔符之间不产生空单词
+public class Utf8Tokenizer {
+
+    private final boolean[] asciiDelimiters = new boolean[128];
+    // 非ASCII分隔符的码点（升序，用于二分查找）
+    private final int[] otherDelimiters;
+
+    private byte[] bytes;
+    private int position;
+    private int end;
+    private int tokenStart;
+    private int tokenLength;
+
+    /**
+     *
+     * @param delimiters 分隔符集合（其中每个字符都是分隔符）
+     */
+    public Utf8Tokenizer(String delimiters) {
+        int[] codePoints = delimiters.codePoints().distinct().sorted().toArray();
+        int asciiCount = 0;
+        for(int codePoint : codePoints) {
+            if(codePoint < 128) {
+                asciiDelimiters[codePoint] = true;
+                asciiCount++;
+            }
+        }
+        // 排序后ASCII字符都在前面
+        this.otherDelimiters = Arrays.copyOfRange(codePoints, asciiCount, codePoints.length);
+    }
+
+    /**
+     *
+     * @param bytes UTF-8编码的文本（例如Text.getBytes()）
+     * @param offset 起始位置
+     * @param length 字节数（例如Text.getLength()，getBytes()返回的数组可能比实际内容长）
+     * @return
+     */
+    public Utf8Tokenizer reset(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.end = offset + length;
+        this.tokenStart = offset;
+        this.tokenLength = 0;
+
+        return this;
+    }
+
+    /**
+     *
+     * @return 是否还有单词
+     * @description 移动到下一个单词
+     */
+    public boolean next() {
+        // 跳过分隔符
+        int length;
+        while(position < end && (length = delimiterLength(position)) > 0) {
+            position += length;
+        }
+        if(position >= end) {
+            tokenLength = 0;
+            return false;
+        }
+        tokenStart = position;
+        // 移动到下一个分隔符
+        while(position < end && delimiterLength(position) == 0) {
+            position += charLength(position);
+        }
+        tokenLength = position - tokenStart;
+
+        return true;
+    }
+
+    public int getTokenStart() {
+        return tokenStart;
+    }
+    public int getTokenLength() {
+        return tokenLength;
+    }
+
+    // position处为分隔符时返回分隔符的字节数，否则返回0
+    private int delimiterLength(int position) {
+        byte b = bytes[position];
+        if(b >= 0) {
+            return asciiDelimiters[b] ? 1 : 0;
+        }
+        if(otherDelimiters.length == 0) {
+            return 0;
+        }
+        int length = charLength(position);
+        if(length == 1) {
+            // 不完整或者不合法的字节序列
+            return 0;
+        }
+
+        return Arrays.binarySearch(otherDelimiters, codePoint(position, length)) >= 0 ? length : 0;
+    }
+
+    // position处字符的字节数（根据首字节判断，不合法或者被截断的序列按1个字节处理，避免把其后的分隔符当作后续字节跳过）
+    private int charLength(int position) {
+        int b = bytes[position] & 0xFF;
+        int length;
+        if(b < 0x80) {
+            return 1;
+        } else if((b & 0xE0) == 0xC0) {
+            length = 2;
+        } else if((b & 0xF0) == 0xE0) {
+            length = 3;
+        } else if((b & 0xF8) == 0xF0) {
+            length = 4;
+        } else {
+            return 1;
+        }
+        if(position + length > end) {
+            return 1;
+        }
+        for(int i = 1; i < length; i++) {
+            if((bytes[position + i] & 0xC0) != 0x80) {
+                return 1;
+            }
+        }
+
+        return length;
+    }
+
+    private int codePoint(int position, int length) {
+        int codePoint = bytes[position] & (0xFF >>> (length + 1));
+        for(int i = 1; i < length; i++) {
+            codePoint = (codePoint << 6) | (bytes[position + i] & 0x3F);
+        }
+
+        return codePoint;
+    }
+}
@@ -0,0 +1,55 @@
+package mapreduce;
+
+import hbase.HBaseRowKeySalter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import java.io.IOException;
+
+// 读取WordCount的输出（每行为“单词\t次数”），输出以单词为行键的Put，由HFileOutputFormat2配置的PutSortReducer排序后写成HFile
+// 行键、值均按字符串写入，与HBaseUtil.insertCell写入的数据格式相同
+public class WordCountHFileMapper extends Mapper<LongWritable, Text, ImmutableBytesWritable, Put> {
+
+    public static final String FAMILY_KEY = "wordcount.hfile.family";
+    public static final String QUALIFIER_KEY = "wordcount.hfile.qualifier";
+    // 目标表为HBaseUtil.createSaltedTable创建的加盐表时，设置为相同的桶数
+    public static final String SALT_BUCKETS_KEY = "wordcount.hfile.salt.buckets";
+
+    private byte[] family;
+    private byte[] qualifier;
+    private HBaseRowKeySalter rowKeySalter;
+    private final ImmutableBytesWritable rowKey = new ImmutableBytesWritable();
+
+    @Override
+    protected void setup(Context context) {
+        Configuration conf = context.getConfiguration();
+        family = Bytes.toBytes(conf.get(FAMILY_KEY, "info"));
+        qualifier = Bytes.toBytes(conf.get(QUALIFIER_KEY, "count"));
+        int saltBuckets = conf.getInt(SALT_BUCKETS_KEY, 0);
+        rowKeySalter = saltBuckets > 0 ? new HBaseRowKeySalter(saltBuckets) : null;
+    }
+
+    @Override
+    protected void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
+        String line = value.toString();
+        int tab = line.indexOf('\t');
+        if(tab <= 0) {
+            // 空行或者格式不正确的行
+            context.getCounter("WordCountHFile", "MALFORMED_LINES").increment(1);
+            return;
+        }
+        String word = line.substring(0, tab);
+        String count = line.substring(tab + 1).trim();
+
+        byte[] row = rowKeySalter == null ? Bytes.toBytes(word) : rowKeySalter.encodeBytes(word);
+        rowKey.set(row);
+        Put put = new Put(row);
+        put.addColumn(family, qualifier, Bytes.toBytes(count));
+        context.write(rowKey, put);
+    }
+}
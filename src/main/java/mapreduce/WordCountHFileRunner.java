@@ -0,0 +1,95 @@
+package mapreduce;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.mapreduce.HFileOutputFormat2;
+import org.apache.hadoop.hbase.tool.LoadIncrementalHFiles;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+/**
+ * 把WordCountRunner的输出转换为HFile并批量导入HBase，代替逐个调用insertCell（数据不经过WAL和MemStore）
+ * 参数：WordCount输出路径 HFile输出路径 表名 zookeeper集群 [列族] [字段]
+ * 目标表需要事先由HBaseUtil.createTable（或者createSaltedTable）创建，列族默认为info，字段默认为count，
+ * 加盐表通过 -D wordcount.hfile.salt.buckets=桶数 指定与建表时相同的桶数
+ * HFileOutputFormat2按表的Region边界设置reduce任务数和TotalOrderPartitioner，每个reduce输出的HFile正好属于一个Region
+ */
+public class WordCountHFileRunner extends Configured implements Tool {
+
+    public static void main(String[] args) throws Exception {
+        int result = ToolRunner.run(new Configuration(), new WordCountHFileRunner(), args);
+        System.exit(result);
+    }
+
+    public int run(String[] strings) throws Exception {
+        if(strings.length < 4) {
+            System.err.println("Usage: WordCountHFileRunner <wordcount output> <hfile output> <table> <zookeeper quorum> [family] [qualifier]");
+            return 2;
+        }
+        String hfilePath = strings[1];
+        String tableName = strings[2];
+        String zksStr = strings[3];
+
+        // 使用getConf()，使 -D 参数生效
+        Configuration conf = HBaseConfiguration.create(getConf());
+        conf.set("hbase.zookeeper.quorum", zksStr);
+        if(strings.length > 4) {
+            conf.set(WordCountHFileMapper.FAMILY_KEY, strings[4]);
+        }
+        if(strings.length > 5) {
+            conf.set(WordCountHFileMapper.QUALIFIER_KEY, strings[5]);
+        }
+        Job job = Job.getInstance(conf);
+
+        job.setJarByClass(WordCountHFileRunner.class);
+        job.setMapperClass(WordCountHFileMapper.class);
+        // configureIncrementalLoad根据map输出的value类型设置reducer（Put对应PutSortReducer），因此需要先指定
+        job.setMapOutputKeyClass(ImmutableBytesWritable.class);
+        job.setMapOutputValueClass(Put.class);
+
+        FileInputFormat.setInputPaths(job, new Path(strings[0]));
+        FileOutputFormat.setOutputPath(job, new Path(hfilePath));
+
+        // 分区和导入使用同一个连接（同一份配置），导入完成后才关闭
+        TableName hTableName = TableName.valueOf(tableName);
+        Connection connection = ConnectionFactory.createConnection(conf);
+        try {
+            Admin admin = connection.getAdmin();
+            Table table = connection.getTable(hTableName);
+            RegionLocator regionLocator = connection.getRegionLocator(hTableName);
+            try {
+                // 按Region的起始行键分区，并设置HFile的压缩、布隆过滤器、块大小等与列族一致
+                HFileOutputFormat2.configureIncrementalLoad(job, table, regionLocator);
+
+                if(!job.waitForCompletion(true)) {
+                    return 1;
+                }
+
+                // 导入HFile（导入前Region发生分裂时，跨越新边界的HFile会被自动拆分）
+                new LoadIncrementalHFiles(conf).doBulkLoad(new Path(hfilePath), admin, table, regionLocator);
+                System.err.println("导入HFile到表" + tableName + "成功!");
+            } finally {
+                regionLocator.close();
+                table.close();
+                admin.close();
+            }
+        } finally {
+            connection.close();
+        }
+
+        return 0;
+    }
+}
@@ -1,9 +1,9 @@
 package mapreduce;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
-import org.apache.hadoop.util.StringUtils;
 
 import java.io.IOException;
 
@@ -12,16 +12,85 @@ import java.io.IOException;
 // 默认情况下，框架传递给mapper的输入数据中，key是待处理文本中一行的起始偏移量，value是该行的内容（MapReduce封装屏蔽了数据的输入输出流信息）
 public class WordCountMapper extends Mapper<LongWritable, Text, Text, LongWritable> {
 
+    // 单词分隔符集合（其中每个字符都是分隔符，可以包含中文标点等非ASCII字符），默认为空格
+    public static final String DELIMITERS_KEY = "wordcount.delimiters";
+    // 为true时在map内先聚合（in-mapper combining）：同一个单词在缓冲区中只保存一个次数，缓冲区满时以及cleanup时输出部分结果，
+    // 输出记录数从“单词出现次数”降为“每次输出时不同单词数”，减少溢写、排序以及序列化的数据量（combiner只能在序列化之后合并）
+    public static final String IN_MAPPER_COMBINE_KEY = "wordcount.inmapper.combine";
+    // 缓冲区最多保存的不同单词数
+    public static final String IN_MAPPER_MAX_ENTRIES_KEY = "wordcount.inmapper.max.entries";
+    // 缓冲区中所有单词的字节数上限
+    public static final String IN_MAPPER_MAX_BYTES_KEY = "wordcount.inmapper.max.bytes";
+
+    private Utf8Tokenizer tokenizer;
+    private TokenCountMap tokenCounts;
+    // 输出时复用（context.write会立即序列化）
+    private final Text outputKey = new Text();
+    private final LongWritable outputValue = new LongWritable();
+    private final TokenCountMap.Visitor writer = (bytes, offset, length, count) -> write(bytes, offset, length, count);
+    private Context context;
+
+    @Override
+    protected void setup(Context context) {
+        this.context = context;
+        Configuration conf = context.getConfiguration();
+        tokenizer = new Utf8Tokenizer(conf.get(DELIMITERS_KEY, " "));
+        if(conf.getBoolean(IN_MAPPER_COMBINE_KEY, false)) {
+            tokenCounts = new TokenCountMap(conf.getInt(IN_MAPPER_MAX_ENTRIES_KEY, 1 << 16),
+                    conf.getInt(IN_MAPPER_MAX_BYTES_KEY, 4 << 20));
+        }
+    }
+
     // MapReduce框架每读一行数据就调用一次map方法
     // 具体业务逻辑就写在map方法体中，而且业务需要处理的数据已经被框架传递进来，保存在方法的参数中 key-value
     @Override
     protected void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
-        // 业务逻辑：1.将行内容进行类型转化； 2.按特定分隔符切分； 3.遍历单词数组输出为key-value形式
-        String line = value.toString();
-        String[] words = StringUtils.split(line, ' ');
-        for(String word : words) {
-            // 将map的输出结果写入到context，用于reduce的输入数据
-            context.write(new Text(word), new LongWritable(1));
+        // 业务逻辑：1.直接在行内容的UTF-8字节上按分隔符切分（不转换为String）； 2.遍历单词输出为key-value形式
+        // getBytes()返回的数组可能比实际内容长，需要使用getLength()
+        // 注意输出与原来的StringUtils.split(line, ' ')不同：行首、连续的分隔符以及空行不再产生空字符串单词，结果中不再有key为""的计数
+        byte[] bytes = value.getBytes();
+        tokenizer.reset(bytes, 0, value.getLength());
+        while(tokenizer.next()) {
+            if(tokenCounts == null) {
+                // 将map的输出结果写入到context，用于reduce的输入数据（复用outputKey、outputValue，不为每个单词创建对象）
+                write(bytes, tokenizer.getTokenStart(), tokenizer.getTokenLength(), 1L);
+            } else {
+                count(bytes, tokenizer.getTokenStart(), tokenizer.getTokenLength());
+            }
+        }
+    }
+
+    // 在缓冲区中累加，缓冲区满时先输出已有的部分结果（单个单词超过字节数上限时直接输出）
+    private void count(byte[] bytes, int offset, int length) throws IOException, InterruptedException {
+        if(tokenCounts.add(bytes, offset, length, 1L)) {
+            return;
+        }
+        flush();
+        if(!tokenCounts.add(bytes, offset, length, 1L)) {
+            write(bytes, offset, length, 1L);
+        }
+    }
+
+    private void flush() throws IOException, InterruptedException {
+        if(tokenCounts.isEmpty()) {
+            return;
+        }
+        context.getCounter("WordCount", "IN_MAPPER_FLUSHES").increment(1);
+        tokenCounts.forEach(writer);
+        tokenCounts.clear();
+    }
+
+    private void write(byte[] bytes, int offset, int length, long count) throws IOException, InterruptedException {
+        outputKey.set(bytes, offset, length);
+        outputValue.set(count);
+        context.write(outputKey, outputValue);
+    }
+
+    // 输出缓冲区中剩余的部分结果
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        if(tokenCounts != null) {
+            flush();
         }
     }
 }
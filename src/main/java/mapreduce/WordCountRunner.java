@@ -26,7 +26,8 @@ public class WordCountRunner extends Configured implements Tool {
     }
 
     public int run(String[] strings) throws Exception {
-        Configuration conf = new Configuration();
+        // 使用ToolRunner解析后的配置，可以通过-D指定参数，例如-D wordcount.inmapper.combine=true开启map内聚合
+        Configuration conf = getConf();
         Job job = Job.getInstance(conf);
 
         // 设置整个job所用的类在哪个jar包（通过传入的class找到job的jar包）
@@ -50,6 +51,11 @@ public class WordCountRunner extends Configured implements Tool {
         job.setMapOutputKeyClass(Text.class);
         job.setMapOutputValueClass(LongWritable.class);
 
+        // 第三个参数为packed时，输入为hdfs.HDFSSmallFileCompactor合并后的容器文件夹（默认为普通文本文件）
+        if(strings.length > 2 && "packed".equalsIgnoreCase(strings[2])) {
+            job.setInputFormatClass(PackedTextInputFormat.class);
+        }
+
         // 指定要处理的输入数据存放路径
         FileInputFormat.setInputPaths(job, new Path(strings[0]));
         // 指定处理结果的输出数据存放路径
@@ -0,0 +1,119 @@
+package benchmark;
+
+import hdfs.HDFSClientManager;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * @description 基准测试使用的文件系统：本地文件系统（local）或者进程内的MiniDFSCluster（minicluster），
+ *               客户端由HDFSClientManager管理，因此HDFSUtil的各方法不会在调用后关闭客户端
+ */
+public class BenchmarkFileSystem {
+
+    public static final String LOCAL = "local";
+    public static final String MINICLUSTER = "minicluster";
+
+    // MiniDFSCluster的Block大小（较小的Block使并行复制在中等大小的文件上也能切分为多个分段）
+    private static final long MINICLUSTER_BLOCK_SIZE = 1024L * 1024 * 8;
+
+    private final File workDir;
+    private final MiniDFSCluster cluster;
+    private final HDFSClientManager clientManager;
+    private final String uriStr;
+    private final String user;
+    private final String basePath;
+
+    /**
+     *
+     * @param fsType local或者minicluster
+     * @param bufferSize 读写缓冲区大小（io.file.buffer.size，copyFromLocalFile、copyToLocalFile等方法使用）
+     * @throws IOException
+     */
+    public BenchmarkFileSystem(String fsType, int bufferSize) throws IOException {
+        workDir = new File(System.getProperty("java.io.tmpdir"), "hdfs-benchmark-" + UUID.randomUUID());
+        workDir.mkdirs();
+        user = System.getProperty("user.name");
+
+        Configuration configuration = new Configuration();
+        configuration.setInt("io.file.buffer.size", bufferSize);
+        if(MINICLUSTER.equals(fsType)) {
+            configuration.set(MiniDFSCluster.HDFS_MINIDFS_BASEDIR, new File(workDir, "dfs").getAbsolutePath());
+            configuration.setLong("dfs.blocksize", MINICLUSTER_BLOCK_SIZE);
+            cluster = new MiniDFSCluster.Builder(configuration).numDataNodes(1).build();
+            cluster.waitActive();
+            uriStr = cluster.getURI().toString();
+            basePath = "/benchmark";
+        } else if(LOCAL.equals(fsType)) {
+            cluster = null;
+            uriStr = "file:///";
+            basePath = new File(workDir, "fs").getAbsolutePath().replace(File.separatorChar, '/');
+        } else {
+            throw new IllegalArgumentException("Unknown fsType: " + fsType);
+        }
+
+        clientManager = new HDFSClientManager(configuration);
+        getFileSystem().mkdirs(new Path(basePath));
+    }
+
+    public HDFSClientManager getClientManager() {
+        return clientManager;
+    }
+
+    public FileSystem getFileSystem() throws IOException {
+        return clientManager.getFileSystem(uriStr, user);
+    }
+
+    /**
+     * @description 文件系统中的路径（local时位于临时文件夹下，minicluster时位于/benchmark下）
+     */
+    public String path(String relativePath) {
+        return basePath + "/" + relativePath;
+    }
+
+    /**
+     * @description 本地临时文件路径
+     */
+    public String localPath(String relativePath) {
+        return new File(workDir, relativePath).getAbsolutePath();
+    }
+
+    /**
+     * @description 写入指定大小的随机内容文件
+     */
+    public void createFile(FileSystem fileSystem, String pathStr, long fileSize) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(fileSize, 1024 * 1024)];
+        new Random(fileSize).nextBytes(buffer);
+        FSDataOutputStream out = fileSystem.create(new Path(pathStr), true);
+        try {
+            for(long written = 0; written < fileSize; written += buffer.length) {
+                out.write(buffer, 0, (int) Math.min(buffer.length, fileSize - written));
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @description 在本地临时文件夹中写入指定大小的随机内容文件（不生成.crc校验文件）
+     */
+    public void createLocalFile(String localPathStr, long fileSize) throws IOException {
+        createFile(FileSystem.getLocal(new Configuration()).getRaw(), localPathStr, fileSize);
+    }
+
+    public void shutdown() {
+        clientManager.shutdown();
+        if(cluster != null) {
+            cluster.shutdown();
+        }
+        FileUtil.fullyDelete(workDir);
+    }
+}
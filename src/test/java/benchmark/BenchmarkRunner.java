@@ -0,0 +1,31 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @description 运行基准测试并输出JSON格式的结果，便于在不同版本之间对比
+ *               mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmark.BenchmarkRunner -Dexec.args="HDFS -p fsType=minicluster"
+ *               参数与JMH命令行参数相同（不指定时运行benchmark包下除HBase以外的所有基准测试），结果文件由 -Dbenchmark.result 指定，默认为target/jmh-result.json
+ *               HBase基准测试需要可用的HBase集群，只在显式指定时运行，例如 -Dexec.args="HBaseWrite -p zookeeperQuorum=wonder1,wonder2,wonder3"
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder optionsBuilder = new OptionsBuilder();
+        optionsBuilder.parent(commandLineOptions);
+        if(commandLineOptions.getIncludes().isEmpty()) {
+            optionsBuilder.include("benchmark\\..*");
+            optionsBuilder.exclude("benchmark\\.HBase.*");
+        }
+        Options options = optionsBuilder
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("benchmark.result", "target/jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import hbase.HBaseBulkWriter;
+import hbase.HBaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description HBase写入吞吐量对比：循环调用insertCell与HBaseBulkWriter（每次操作写入cellCount个Cell）
+ *               需要可用的HBase集群：-p zookeeperQuorum=wonder1,wonder2,wonder3
+ *               writeBufferSize只影响HBaseBulkWriter，因此两个基准测试使用不同的State，insertCellLoop不会按writeBufferSize重复运行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class HBaseWriteBenchmark {
+
+    private static final String TABLE_NAME = "benchmark_write";
+    private static final String FAMILY_COLUMN = "basic_info";
+
+    @State(Scope.Benchmark)
+    public static class WriteState {
+
+        @Param({"localhost"})
+        public String zookeeperQuorum;
+
+        @Param({"10000"})
+        public int cellCount;
+
+        HBaseUtil hBaseUtil;
+        int batch = 0;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            hBaseUtil = new HBaseUtil(zookeeperQuorum);
+            hBaseUtil.createTable(TABLE_NAME, new String[] {FAMILY_COLUMN});
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            hBaseUtil.dropTable(TABLE_NAME);
+            hBaseUtil.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BulkWriteState extends WriteState {
+
+        @Param({"2097152", "8388608"})
+        public long writeBufferSize;
+    }
+
+    @Benchmark
+    public int insertCellLoop(WriteState state) {
+        String rowPrefix = "loop_" + (state.batch++) + "_";
+        int inserted = 0;
+        for(int i = 0; i < state.cellCount; i++) {
+            if(state.hBaseUtil.insertCell(TABLE_NAME, rowPrefix + i, FAMILY_COLUMN, "name", "Orange")) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    @Benchmark
+    public long bulkWriter(BulkWriteState state) {
+        String rowPrefix = "bulk_" + (state.batch++) + "_";
+        HBaseBulkWriter bulkWriter = state.hBaseUtil.createBulkWriter(TABLE_NAME, state.writeBufferSize, 0);
+        for(int i = 0; i < state.cellCount; i++) {
+            bulkWriter.insertCell(rowPrefix + i, FAMILY_COLUMN, "name", "Orange");
+        }
+        bulkWriter.close();
+        return bulkWriter.getCellCount() - bulkWriter.getFailedCount();
+    }
+}
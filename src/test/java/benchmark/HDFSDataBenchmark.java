@@ -0,0 +1,102 @@
+package benchmark;
+
+import hdfs.HDFSParallelCopier;
+import hdfs.HDFSUtil;
+import org.apache.hadoop.fs.FileSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description HDFSUtil数据读写操作的基准测试：上传、下载（copyToLocalFile与NIO）、HDFS内复制（单流与并行）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HDFSDataBenchmark {
+
+    @Param({BenchmarkFileSystem.LOCAL, BenchmarkFileSystem.MINICLUSTER})
+    private String fsType;
+
+    @Param({"1048576", "67108864"})
+    private long fileSize;
+
+    @Param({"4096", "65536"})
+    private int bufferSize;
+
+    private BenchmarkFileSystem benchmarkFileSystem;
+    private HDFSUtil hdfsUtil;
+    private FileSystem hdfs;
+    private String localSourcePath;
+    private String localTargetPath;
+    private String hdfsSourcePath;
+    private String hdfsUploadPath;
+    private String hdfsCopyPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        benchmarkFileSystem = new BenchmarkFileSystem(fsType, bufferSize);
+        hdfsUtil = new HDFSUtil(benchmarkFileSystem.getClientManager());
+        hdfs = benchmarkFileSystem.getFileSystem();
+
+        localSourcePath = benchmarkFileSystem.localPath("upload-src.bin");
+        localTargetPath = benchmarkFileSystem.localPath("download-dst.bin");
+        hdfsSourcePath = benchmarkFileSystem.path("data/src.bin");
+        hdfsUploadPath = benchmarkFileSystem.path("upload/dst.bin");
+        hdfsCopyPath = benchmarkFileSystem.path("copy/dst.bin");
+
+        benchmarkFileSystem.createLocalFile(localSourcePath, fileSize);
+        benchmarkFileSystem.createFile(hdfs, hdfsSourcePath, fileSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkFileSystem.shutdown();
+    }
+
+    @Benchmark
+    public boolean upload() {
+        return hdfsUtil.uploadFile(hdfs, localSourcePath, hdfsUploadPath);
+    }
+
+    @Benchmark
+    public boolean download() {
+        return hdfsUtil.downloadFile(hdfs, hdfsSourcePath, localTargetPath);
+    }
+
+    @Benchmark
+    public boolean downloadNioFileChannel() {
+        return hdfsUtil.downloadFileNio(hdfs, hdfsSourcePath, localTargetPath, false);
+    }
+
+    @Benchmark
+    public boolean downloadNioMemoryMapped() {
+        return hdfsUtil.downloadFileNio(hdfs, hdfsSourcePath, localTargetPath, true);
+    }
+
+    @Benchmark
+    public void copy() {
+        hdfsUtil.copyFileBetweenHDFS(hdfs, hdfsSourcePath, hdfsCopyPath);
+    }
+
+    @Benchmark
+    public HDFSParallelCopier.CopyStats copyParallel() {
+        return hdfsUtil.copyFileBetweenHDFSParallel(hdfs, hdfsSourcePath, hdfsCopyPath, 4);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import hdfs.HDFSNioDownloader;
+import hdfs.HDFSUtil;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description 下载方式对比：copyToLocalFile（HDFSUtil.downloadFile）与NIO堆外缓冲区/内存映射（HDFSUtil.downloadFileNio），
+ *               配合GC profiler对比每次下载的内存分配量；默认使用MiniDFSCluster，DFSInputStream支持ByteBufferReadable，
+ *               才能测到直接读入堆外缓冲区的路径（-p fsType=local时本地文件系统的校验流不支持，NIO方式只能走堆内缓冲区的回退路径）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HDFSDownloadBenchmark {
+
+    @Param({BenchmarkFileSystem.MINICLUSTER})
+    private String fsType;
+
+    @Param({"67108864", "536870912"})
+    private long fileSize;
+
+    private BenchmarkFileSystem benchmarkFileSystem;
+    private HDFSUtil hdfsUtil;
+    private FileSystem hdfs;
+    private String hdfsFilePath;
+    private String localFilePath;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        benchmarkFileSystem = new BenchmarkFileSystem(fsType, 65536);
+        hdfsUtil = new HDFSUtil(benchmarkFileSystem.getClientManager());
+        hdfs = benchmarkFileSystem.getFileSystem();
+
+        hdfsFilePath = benchmarkFileSystem.path("download/src.bin");
+        localFilePath = benchmarkFileSystem.localPath("download-dst.bin");
+        benchmarkFileSystem.createFile(hdfs, hdfsFilePath, fileSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkFileSystem.shutdown();
+    }
+
+    @Benchmark
+    public boolean copyToLocalFile() {
+        return hdfsUtil.downloadFile(hdfs, hdfsFilePath, localFilePath);
+    }
+
+    @Benchmark
+    public long nioFileChannel() throws IOException {
+        return new HDFSNioDownloader(HDFSNioDownloader.Mode.FILE_CHANNEL).download(hdfs, new Path(hdfsFilePath), localFilePath);
+    }
+
+    @Benchmark
+    public long nioMemoryMapped() throws IOException {
+        return new HDFSNioDownloader(HDFSNioDownloader.Mode.MEMORY_MAPPED).download(hdfs, new Path(hdfsFilePath), localFilePath);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(HDFSDownloadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
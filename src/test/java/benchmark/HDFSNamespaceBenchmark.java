@@ -0,0 +1,95 @@
+package benchmark;
+
+import hdfs.HDFSMetadataCache;
+import hdfs.HDFSParallelTraversal;
+import hdfs.HDFSUtil;
+import hdfs.PathMetadata;
+import org.apache.hadoop.fs.FileSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description HDFSUtil命名空间操作的基准测试：递归遍历（串行与并行）以及路径元数据查询（无缓存与有缓存）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HDFSNamespaceBenchmark {
+
+    // 每个文件夹中的文件数
+    private static final int FILES_PER_DIR = 20;
+
+    @Param({BenchmarkFileSystem.LOCAL, BenchmarkFileSystem.MINICLUSTER})
+    private String fsType;
+
+    @Param({"100", "2000"})
+    private int fileCount;
+
+    private BenchmarkFileSystem benchmarkFileSystem;
+    private HDFSUtil hdfsUtil;
+    private HDFSUtil cachedHdfsUtil;
+    private FileSystem hdfs;
+    private String treePath;
+    private String metadataPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        benchmarkFileSystem = new BenchmarkFileSystem(fsType, 4096);
+        hdfsUtil = new HDFSUtil(benchmarkFileSystem.getClientManager());
+        cachedHdfsUtil = new HDFSUtil(benchmarkFileSystem.getClientManager(),
+                new HDFSMetadataCache(10000, 10, TimeUnit.MINUTES));
+        hdfs = benchmarkFileSystem.getFileSystem();
+
+        // 两层文件夹结构：tree/dir_i/sub_j/file_k
+        treePath = benchmarkFileSystem.path("tree");
+        for(int i = 0; i < fileCount; i++) {
+            int dirIndex = i / FILES_PER_DIR;
+            benchmarkFileSystem.createFile(hdfs, treePath + "/dir_" + (dirIndex % 10) + "/sub_" + dirIndex + "/file_" + i, 16);
+        }
+        metadataPath = treePath + "/dir_0/sub_0/file_0";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkFileSystem.shutdown();
+    }
+
+    @Benchmark
+    public Set<String> traversalRecursive() {
+        return hdfsUtil.fileRecursiveTraversal(hdfs, treePath);
+    }
+
+    @Benchmark
+    public HDFSParallelTraversal.TraversalStats traversalParallel(Blackhole blackhole) {
+        return hdfsUtil.fileParallelTraversal(hdfs, treePath, 8, -1, null, blackhole::consume);
+    }
+
+    @Benchmark
+    public PathMetadata metadata() {
+        return hdfsUtil.getPathMetadata(hdfs, metadataPath);
+    }
+
+    @Benchmark
+    public PathMetadata metadataCached() {
+        return cachedHdfsUtil.getPathMetadata(hdfs, metadataPath);
+    }
+}
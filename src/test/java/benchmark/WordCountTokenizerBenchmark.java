@@ -0,0 +1,111 @@
+package benchmark;
+
+import mapreduce.Utf8Tokenizer;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.util.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @description WordCountMapper切分单词的基准测试（每次操作处理lineCount行，与map中的处理相同，只是把context.write换成Blackhole）：
+ *               原实现（Text转换为String、StringUtils.split、每个单词创建Text和LongWritable）与Utf8Tokenizer（直接切分UTF-8字节、复用Text和LongWritable）对比；
+ *               加上 -prof gc 可以看到每次操作分配的字节数（gc.alloc.rate.norm）
+ *               mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmark.BenchmarkRunner -Dexec.args="WordCountTokenizer -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WordCountTokenizerBenchmark {
+
+    // ascii为英文单词，utf8为中英文混合的单词
+    @Param({"ascii", "utf8"})
+    private String textType;
+
+    @Param({"1000"})
+    private int lineCount;
+
+    private Text[] lines;
+    private Utf8Tokenizer spaceTokenizer;
+    private Utf8Tokenizer punctuationTokenizer;
+    private final Text outputKey = new Text();
+    private final LongWritable outputValue = new LongWritable();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] asciiWords = {"hadoop", "hdfs", "mapreduce", "hbase", "zookeeper", "yarn", "storm", "the", "a", "of"};
+        String[] utf8Words = {"大数据", "分布式", "文件系统", "hadoop", "hbase", "计算", "的", "是", "数据", "集群"};
+        String[] words = "utf8".equals(textType) ? utf8Words : asciiWords;
+
+        // 单词出现频率不均匀（前几个单词出现得更多），每行10到30个单词
+        Random random = new Random(42);
+        lines = new Text[lineCount];
+        for(int i = 0; i < lineCount; i++) {
+            StringBuilder line = new StringBuilder();
+            int wordCount = 10 + random.nextInt(21);
+            for(int j = 0; j < wordCount; j++) {
+                if(j > 0) {
+                    line.append(' ');
+                }
+                line.append(words[(int) (Math.pow(random.nextDouble(), 2) * words.length)]);
+            }
+            lines[i] = new Text(line.toString());
+        }
+
+        spaceTokenizer = new Utf8Tokenizer(" ");
+        punctuationTokenizer = new Utf8Tokenizer(" \t,.;，。；、");
+    }
+
+    @Benchmark
+    public void stringSplit(Blackhole blackhole) {
+        for(Text value : lines) {
+            String line = value.toString();
+            String[] words = StringUtils.split(line, ' ');
+            for(String word : words) {
+                blackhole.consume(new Text(word));
+                blackhole.consume(new LongWritable(1));
+            }
+        }
+    }
+
+    @Benchmark
+    public void utf8Tokenizer(Blackhole blackhole) {
+        tokenize(spaceTokenizer, blackhole);
+    }
+
+    // 分隔符中包含中文标点时需要解码多字节字符
+    @Benchmark
+    public void utf8TokenizerWithPunctuation(Blackhole blackhole) {
+        tokenize(punctuationTokenizer, blackhole);
+    }
+
+    private void tokenize(Utf8Tokenizer tokenizer, Blackhole blackhole) {
+        for(Text value : lines) {
+            byte[] bytes = value.getBytes();
+            tokenizer.reset(bytes, 0, value.getLength());
+            while(tokenizer.next()) {
+                outputKey.set(bytes, tokenizer.getTokenStart(), tokenizer.getTokenLength());
+                outputValue.set(1L);
+                blackhole.consume(outputKey);
+                blackhole.consume(outputValue);
+            }
+        }
+    }
+}